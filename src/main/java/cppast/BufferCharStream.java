@@ -0,0 +1,547 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppast;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Implements a character stream over a byte buffer, typically a memory mapped file.
+ * <p>
+ * The content is decoded from UTF-8 on the fly, ASCII characters being read straight from the buffer without any
+ * intermediate copy.
+ * <p>
+ * Java-like unicode escapes have no meaning in C++ and are therefore read as plain characters by default. When
+ * enabled they are handled exactly as the JavaCC generated JavaCharStream would.
+ * <p>
+ * When given an identifier pool, the images of the identifiers are retrieved from it instead of being allocated for
+ * each token.
+ *
+ * @author Mathieu Champlon
+ */
+public final class BufferCharStream implements CharStream
+{
+    private static final int TAB_SIZE = 8;
+    private static final int INITIAL_SIZE = 256;
+    private static final int[] MINIMUM =
+    {
+            0, 0x80, 0x800, 0x10000
+    };
+    private static final char REPLACEMENT = '\uFFFD';
+    private static final Charset UTF8 = Charset.forName( "UTF-8" );
+    private final ByteBuffer input;
+    private final int limit;
+    private final boolean escapes;
+    private final IdentifierPool pool;
+    private int offset;
+    private char surrogate;
+    private char[] chars = new char[INITIAL_SIZE];
+    private int[] lines = new int[INITIAL_SIZE];
+    private int[] columns = new int[INITIAL_SIZE];
+    private int begin;
+    private int position = -1;
+    private int size;
+    private int line = 1;
+    private int column;
+    private boolean prevCharIsCR;
+    private boolean prevCharIsLF;
+
+    /**
+     * Create a character stream from a byte buffer.
+     *
+     * @param input the UTF-8 encoded content
+     * @param escapes whether to process unicode escapes
+     */
+    public BufferCharStream( final ByteBuffer input, final boolean escapes )
+    {
+        this( input, escapes, null );
+    }
+
+    /**
+     * Create a character stream from a byte buffer sharing identifier images.
+     *
+     * @param input the UTF-8 encoded content
+     * @param escapes whether to process unicode escapes
+     * @param pool the identifier pool, null if none
+     */
+    public BufferCharStream( final ByteBuffer input, final boolean escapes, final IdentifierPool pool )
+    {
+        if( input == null )
+            throw new IllegalArgumentException( "argument 'input' is null" );
+        this.input = input;
+        this.escapes = escapes;
+        this.pool = pool;
+        this.limit = input.limit();
+        this.offset = input.position();
+    }
+
+    /**
+     * Create a character stream from a string.
+     *
+     * @param content the content
+     */
+    public BufferCharStream( final String content )
+    {
+        this( encode( content ), false );
+    }
+
+    /**
+     * Create a character stream from a file.
+     * <p>
+     * The file is memory mapped, it can be closed as soon as the stream has been created.
+     *
+     * @param file the UTF-8 encoded file
+     * @param escapes whether to process unicode escapes
+     * @throws IOException if the file cannot be mapped
+     */
+    public BufferCharStream( final File file, final boolean escapes ) throws IOException
+    {
+        this( map( file ), escapes, null );
+    }
+
+    /**
+     * Create a character stream from a file sharing identifier images.
+     * <p>
+     * The file is memory mapped, it can be closed as soon as the stream has been created.
+     *
+     * @param file the UTF-8 encoded file
+     * @param escapes whether to process unicode escapes
+     * @param pool the identifier pool, null if none
+     * @throws IOException if the file cannot be mapped
+     */
+    public BufferCharStream( final File file, final boolean escapes, final IdentifierPool pool ) throws IOException
+    {
+        this( map( file ), escapes, pool );
+    }
+
+    /**
+     * Create a character stream from a reader.
+     * <p>
+     * The reader is read entirely, an error ending the content as it would end the tokens.
+     *
+     * @param reader the reader
+     * @return the character stream
+     */
+    public static BufferCharStream create( final Reader reader )
+    {
+        if( reader == null )
+            throw new IllegalArgumentException( "argument 'reader' is null" );
+        final StringBuilder builder = new StringBuilder();
+        final char[] buffer = new char[INITIAL_SIZE];
+        try
+        {
+            for( int read = reader.read( buffer ); read != -1; read = reader.read( buffer ) )
+                builder.append( buffer, 0, read );
+        }
+        catch( final IOException e )
+        {
+            return new BufferCharStream( builder.toString() );
+        }
+        return new BufferCharStream( builder.toString() );
+    }
+
+    private static ByteBuffer encode( final String content )
+    {
+        if( content == null )
+            throw new IllegalArgumentException( "argument 'content' is null" );
+        return UTF8.encode( content );
+    }
+
+    private static ByteBuffer map( final File file ) throws IOException
+    {
+        if( file == null )
+            throw new IllegalArgumentException( "argument 'file' is null" );
+        final FileInputStream stream = new FileInputStream( file );
+        try
+        {
+            final FileChannel channel = stream.getChannel();
+            return channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public char BeginToken() throws IOException
+    {
+        begin = position + 1;
+        return readChar();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public char readChar() throws IOException
+    {
+        if( position + 1 == size && !fill() )
+        {
+            if( position < begin )
+            {
+                if( begin == chars.length )
+                    reserve();
+                lines[begin] = line;
+                columns[begin] = column;
+            }
+            throw new IOException();
+        }
+        return chars[++position];
+    }
+
+    private boolean fill()
+    {
+        if( size == chars.length )
+            reserve();
+        final int c = next();
+        if( c < 0 )
+            return false;
+        if( c == '\\' && escapes )
+        {
+            unescape();
+            return true;
+        }
+        append( (char)c );
+        if( surrogate == 0 && !prevCharIsCR )
+            copy();
+        return true;
+    }
+
+    private void copy()
+    {
+        final int end = size + Math.min( chars.length - size, limit - offset );
+        int index = size;
+        int currentLine = line;
+        int currentColumn = column;
+        boolean lf = prevCharIsLF;
+        for( ; index < end; ++index )
+        {
+            final byte b = input.get( offset );
+            if( b < ' ' && b != '\n' && b != '\t' || b == '\\' && escapes )
+                break;
+            ++offset;
+            if( lf )
+            {
+                ++currentLine;
+                currentColumn = 0;
+            }
+            lf = b == '\n';
+            if( b == '\t' )
+                currentColumn += TAB_SIZE - currentColumn % TAB_SIZE;
+            else
+                ++currentColumn;
+            chars[index] = (char)b;
+            lines[index] = currentLine;
+            columns[index] = currentColumn;
+        }
+        size = index;
+        line = currentLine;
+        column = currentColumn;
+        prevCharIsLF = lf;
+    }
+
+    private void unescape()
+    {
+        int count = 1;
+        while( peek() == '\\' )
+        {
+            ++offset;
+            ++count;
+        }
+        if( (count & 1) == 0 || peek() != 'u' )
+        {
+            for( int i = 0; i < count; ++i )
+                append( '\\' );
+            return;
+        }
+        for( int i = 1; i < count; ++i )
+            append( '\\' );
+        update( '\\' );
+        final int escapeLine = line;
+        final int escapeColumn = column;
+        ++offset;
+        update( 'u' );
+        while( peek() == 'u' )
+        {
+            ++offset;
+            ++column;
+        }
+        final char c = (char)(hex() << 12 | hex() << 8 | hex() << 4 | hex());
+        column += 4;
+        store( c, escapeLine, escapeColumn );
+    }
+
+    private int hex()
+    {
+        final int c = next();
+        if( c >= '0' && c <= '9' )
+            return c - '0';
+        if( c >= 'a' && c <= 'f' )
+            return c - 'a' + 10;
+        if( c >= 'A' && c <= 'F' )
+            return c - 'A' + 10;
+        throw new Error( "Invalid escape character at line " + line + " column " + column + "." );
+    }
+
+    private int peek()
+    {
+        if( offset == limit )
+            return -1;
+        return input.get( offset ) & 0xFF;
+    }
+
+    private int next()
+    {
+        if( surrogate != 0 )
+        {
+            final char c = surrogate;
+            surrogate = 0;
+            return c;
+        }
+        if( offset == limit )
+            return -1;
+        final byte b = input.get( offset++ );
+        if( b >= 0 )
+            return b;
+        return decode( b & 0xFF );
+    }
+
+    private int decode( final int lead )
+    {
+        if( lead < 0xC2 || lead > 0xF4 )
+            return REPLACEMENT;
+        final int length = lead < 0xE0 ? 1 : lead < 0xF0 ? 2 : 3;
+        int code = lead & (0x3F >> length);
+        for( int i = 0; i < length; ++i )
+        {
+            final int b = peek();
+            if( (b & 0xC0) != 0x80 )
+                return REPLACEMENT;
+            code = code << 6 | b & 0x3F;
+            ++offset;
+        }
+        if( code < MINIMUM[length] || code >= Character.MIN_SURROGATE && code <= Character.MAX_SURROGATE
+                || code > Character.MAX_CODE_POINT )
+            return REPLACEMENT;
+        if( code < Character.MIN_SUPPLEMENTARY_CODE_POINT )
+            return code;
+        final int value = code - Character.MIN_SUPPLEMENTARY_CODE_POINT;
+        surrogate = (char)(Character.MIN_LOW_SURROGATE + (value & 0x3FF));
+        return Character.MIN_HIGH_SURROGATE + (value >> 10);
+    }
+
+    private void append( final char c )
+    {
+        update( c );
+        store( c, line, column );
+    }
+
+    private void store( final char c, final int line, final int column )
+    {
+        if( size == chars.length )
+            reserve();
+        chars[size] = c;
+        lines[size] = line;
+        columns[size] = column;
+        ++size;
+    }
+
+    private void reserve()
+    {
+        final int length = size - begin;
+        if( length < chars.length / 2 )
+        {
+            System.arraycopy( chars, begin, chars, 0, length );
+            System.arraycopy( lines, begin, lines, 0, length );
+            System.arraycopy( columns, begin, columns, 0, length );
+        }
+        else
+        {
+            final char[] newChars = new char[chars.length * 2];
+            final int[] newLines = new int[chars.length * 2];
+            final int[] newColumns = new int[chars.length * 2];
+            System.arraycopy( chars, begin, newChars, 0, length );
+            System.arraycopy( lines, begin, newLines, 0, length );
+            System.arraycopy( columns, begin, newColumns, 0, length );
+            chars = newChars;
+            lines = newLines;
+            columns = newColumns;
+        }
+        position -= begin;
+        size = length;
+        begin = 0;
+    }
+
+    private void update( final char c )
+    {
+        ++column;
+        if( prevCharIsLF )
+        {
+            prevCharIsLF = false;
+            ++line;
+            column = 1;
+        }
+        else if( prevCharIsCR )
+        {
+            prevCharIsCR = false;
+            if( c == '\n' )
+                prevCharIsLF = true;
+            else
+            {
+                ++line;
+                column = 1;
+            }
+        }
+        if( c == '\r' )
+            prevCharIsCR = true;
+        else if( c == '\n' )
+            prevCharIsLF = true;
+        else if( c == '\t' )
+        {
+            --column;
+            column += TAB_SIZE - column % TAB_SIZE;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void backup( final int amount )
+    {
+        position -= amount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String GetImage()
+    {
+        final int length = position - begin + 1;
+        if( pool != null && isIdentifier( begin, length ) )
+            return pool.get( chars, begin, length );
+        return new String( chars, begin, length );
+    }
+
+    private boolean isIdentifier( final int start, final int length )
+    {
+        if( length == 0 || !isIdentifierStart( chars[start] ) )
+            return false;
+        for( int i = start + 1; i < start + length; ++i )
+            if( !isIdentifierStart( chars[i] ) && (chars[i] < '0' || chars[i] > '9') )
+                return false;
+        return true;
+    }
+
+    private static boolean isIdentifierStart( final char c )
+    {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_';
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public char[] GetSuffix( final int length )
+    {
+        final char[] result = new char[length];
+        System.arraycopy( chars, position - length + 1, result, 0, length );
+        return result;
+    }
+
+    private int current()
+    {
+        if( position < begin )
+            return begin;
+        return position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getBeginColumn()
+    {
+        return columns[begin];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getBeginLine()
+    {
+        return lines[begin];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getEndColumn()
+    {
+        return columns[current()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getEndLine()
+    {
+        return lines[current()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getColumn()
+    {
+        return getEndColumn();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getLine()
+    {
+        return getEndLine();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void Done()
+    {
+        chars = null;
+        lines = null;
+        columns = null;
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppast;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Provides canonical identifier strings.
+ * <p>
+ * Identifiers are looked up straight from the characters they are made of, so that retrieving an identifier already
+ * known does not allocate anything. Pools may share their canonical strings, in which case equal identifiers are the
+ * very same instance whatever the pool which read them.
+ * <p>
+ * A pool is not synchronized and is meant to be confined to a single thread, only the canonical strings being shared.
+ * The canonical strings are held as long as one of the pools sharing them, thus pools are meant to be scoped to an
+ * analysis rather than to the whole process.
+ *
+ * @author Mathieu Champlon
+ */
+public final class IdentifierPool
+{
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAXIMUM_SIZE = 1 << 16;
+    private final ConcurrentMap<String, String> canonical;
+    private String[] entries = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Create an identifier pool with its own canonical strings.
+     */
+    public IdentifierPool()
+    {
+        this.canonical = new ConcurrentHashMap<String, String>();
+    }
+
+    /**
+     * Create an identifier pool sharing the canonical strings of another pool.
+     *
+     * @param shared the pool whose canonical strings to share
+     */
+    public IdentifierPool( final IdentifierPool shared )
+    {
+        if( shared == null )
+            throw new IllegalArgumentException( "argument 'shared' is null" );
+        this.canonical = shared.canonical;
+    }
+
+    private String canonical( final String identifier )
+    {
+        final String previous = canonical.putIfAbsent( identifier, identifier );
+        if( previous == null )
+            return identifier;
+        return previous;
+    }
+
+    /**
+     * Forget all the identifiers, including the canonical strings shared with other pools.
+     */
+    public void clear()
+    {
+        canonical.clear();
+        entries = new String[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Retrieve the canonical string of an identifier from its characters.
+     *
+     * @param chars the characters
+     * @param offset the offset of the first character of the identifier
+     * @param length the number of characters of the identifier
+     * @return the canonical string
+     */
+    public String get( final char[] chars, final int offset, final int length )
+    {
+        int hash = 0;
+        for( int i = offset; i < offset + length; ++i )
+            hash = 31 * hash + chars[i];
+        final int mask = entries.length - 1;
+        int index = (hash ^ (hash >>> 16)) & mask;
+        while( entries[index] != null )
+        {
+            if( hashes[index] == hash && matches( entries[index], chars, offset, length ) )
+                return entries[index];
+            index = (index + 1) & mask;
+        }
+        final String identifier = canonical( new String( chars, offset, length ) );
+        if( size < MAXIMUM_SIZE )
+            add( index, hash, identifier );
+        return identifier;
+    }
+
+    private boolean matches( final String entry, final char[] chars, final int offset, final int length )
+    {
+        if( entry.length() != length )
+            return false;
+        for( int i = 0; i < length; ++i )
+            if( entry.charAt( i ) != chars[offset + i] )
+                return false;
+        return true;
+    }
+
+    private void add( final int index, final int hash, final String identifier )
+    {
+        entries[index] = identifier;
+        hashes[index] = hash;
+        if( ++size * 2 > entries.length )
+            grow();
+    }
+
+    private void grow()
+    {
+        final String[] previousEntries = entries;
+        final int[] previousHashes = hashes;
+        entries = new String[previousEntries.length * 2];
+        hashes = new int[previousHashes.length * 2];
+        final int mask = entries.length - 1;
+        for( int i = 0; i < previousEntries.length; ++i )
+            if( previousEntries[i] != null )
+            {
+                int index = (previousHashes[i] ^ (previousHashes[i] >>> 16)) & mask;
+                while( entries[index] != null )
+                    index = (index + 1) & mask;
+                entries[index] = previousEntries[i];
+                hashes[index] = previousHashes[i];
+            }
+    }
+}
@@ -28,18 +28,25 @@
 
 package cppast;
 
-import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents a scope.
+ * <p>
+ * Scopes can be shared between threads without locking: lookups never block and a sub-scope created concurrently by
+ * several threads ends up being the same for all of them.
+ * <p>
+ * The fully qualified name of a scope is computed once, and qualified names are resolved by walking their segments
+ * in place.
  *
  * @author Mathieu Champlon
  */
 public final class Scope
 {
-    private final String name;
-    private final Hashtable<String, Scope> scopes = new Hashtable<String, Scope>();
-    private Scope parent;
+    private final String qualified;
+    private final ConcurrentMap<String, Scope> scopes = new ConcurrentHashMap<String, Scope>();
+    private final Scope parent;
 
     /**
      * Creates a scope object with a given name.
@@ -55,7 +62,7 @@ public final class Scope
             throw new IllegalArgumentException( "scope parent is null" );
         if( name.contains( "::" ) )
             throw new IllegalArgumentException( "scope name '" + name + "' contains '::'" );
-        this.name = name;
+        this.qualified = parent.qualified + name + "::";
         this.parent = parent;
     }
 
@@ -64,7 +71,7 @@ public final class Scope
      */
     public Scope()
     {
-        this.name = "";
+        this.qualified = "";
         this.parent = null;
     }
 
@@ -81,21 +88,25 @@ public final class Scope
         {
             Scope scope = getScope( name.substring( 0, index ) );
             if( scope == null )
-            {
-                scope = new Scope( name.substring( 0, index ), this );
-                scopes.put( name, scope );
-            }
+                scope = add( name, new Scope( name.substring( 0, index ), this ) );
             return scope.createScope( name.substring( index + 2 ) );
         }
-        final Scope scope = new Scope( name, this );
-        scopes.put( name, scope );
+        return add( name, new Scope( name, this ) );
+    }
+
+    private Scope add( final String name, final Scope scope )
+    {
+        final Scope previous = scopes.putIfAbsent( name, scope );
+        if( previous != null )
+            return previous;
         return scope;
     }
 
     /**
      * Extend the scope with another one.
      * <p>
-     * Types from the given scope are added to the extended scope.
+     * Types from the given scope are added to the extended scope. They are copied one by one, the given scope being
+     * allowed to keep changing concurrently.
      *
      * @param scope the scope to merge into the current scope
      */
@@ -113,18 +124,43 @@ public final class Scope
      */
     public Scope getScope( final String name )
     {
-        final int index = name.indexOf( "::" );
-        if( index != -1 )
+        return getScope( name, 0, name.length() );
+    }
+
+    /**
+     * Retrieve the scope of the part of a given name.
+     * <p>
+     * Each segment of the name is searched from the scope found for the previous one, up through its parents.
+     *
+     * @param name the name
+     * @param start the start index of the scope name
+     * @param end the end index of the scope name
+     * @return the matching scope or null if none
+     */
+    Scope getScope( final String name, final int start, final int end )
+    {
+        Scope scope = this;
+        int begin = start;
+        int index = name.indexOf( "::", begin );
+        while( index != -1 && index < end )
         {
-            final Scope scope = getScope( name.substring( 0, index ) );
+            scope = scope.find( name.substring( begin, index ) );
+            if( scope == null )
+                return null;
+            begin = index + 2;
+            index = name.indexOf( "::", begin );
+        }
+        return scope.find( name.substring( begin, end ) );
+    }
+
+    private Scope find( final String name )
+    {
+        for( Scope current = this; current != null; current = current.parent )
+        {
+            final Scope scope = current.scopes.get( name );
             if( scope != null )
-                return scope.getScope( name.substring( index + 2 ) );
-            return null;
+                return scope;
         }
-        if( scopes.containsKey( name ) )
-            return scopes.get( name );
-        if( parent != null )
-            return parent.getScope( name );
         return null;
     }
 
@@ -149,12 +185,21 @@ public final class Scope
     public String resolve( final String name )
     {
         final int index = name.lastIndexOf( "::" );
-        if( index == -1 )
-            return toString() + name;
-        final Scope scope = getScope( name.substring( 0, index ) );
-        if( scope == null )
-            return toString() + name;
-        return scope.resolve( name.substring( index + 2 ) );
+        if( index != -1 )
+        {
+            final Scope scope = getScope( name, 0, index );
+            if( scope != null )
+                return scope.qualify( name, index + 2 );
+        }
+        return qualify( name, 0 );
+    }
+
+    private String qualify( final String name, final int start )
+    {
+        if( qualified.length() == 0 )
+            return name.substring( start );
+        return new StringBuilder( qualified.length() + name.length() - start ).append( qualified ).append( name,
+                start, name.length() ).toString();
     }
 
     /**
@@ -162,8 +207,6 @@ public final class Scope
      */
     public String toString()
     {
-        if( parent == null )
-            return "";
-        return parent.toString() + name + "::";
+        return qualified;
     }
 }
@@ -131,8 +131,11 @@ public abstract class SimpleNode implements Node
 
     /**
      * Retrieve the comment attached to the node.
+     * <p>
+     * Only visitors declaring that they read comments are guaranteed to retrieve them.
      *
      * @return the comment or null if none
+     * @see CommentVisitor
      */
     public final String getComment()
     {
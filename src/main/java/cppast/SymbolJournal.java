@@ -0,0 +1,260 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppast;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Records the scope operations performed while parsing in order to replay them later on another symbol table.
+ * <p>
+ * This allows several parsers to run independently while still resolving names against a single symbol table
+ * populated in a deterministic order.
+ *
+ * @author Mathieu Champlon
+ */
+public final class SymbolJournal
+{
+    private static final char OPEN = '+';
+    private static final char CLOSE = '-';
+    private static final char CLOSE_ALL = '*';
+    private static final char EXTEND = '>';
+    private final List<Entry> entries = new ArrayList<Entry>();
+
+    /**
+     * Defines a recorded operation.
+     *
+     * @author Mathieu Champlon
+     */
+    private interface Entry
+    {
+        void replay( SymbolTable symbols );
+
+        String encode();
+    }
+
+    /**
+     * Record the opening of a scope.
+     *
+     * @param name the name of the scope
+     */
+    public void openScope( final String name )
+    {
+        entries.add( new Entry()
+        {
+            public void replay( final SymbolTable symbols )
+            {
+                symbols.openScope( name );
+            }
+
+            public String encode()
+            {
+                return OPEN + name;
+            }
+        } );
+    }
+
+    /**
+     * Record the closing of the current scope.
+     */
+    public void closeScope()
+    {
+        entries.add( new Entry()
+        {
+            public void replay( final SymbolTable symbols )
+            {
+                symbols.closeScope();
+            }
+
+            public String encode()
+            {
+                return String.valueOf( CLOSE );
+            }
+        } );
+    }
+
+    /**
+     * Record the closing of all scopes.
+     */
+    public void closeScopes()
+    {
+        entries.add( new Entry()
+        {
+            public void replay( final SymbolTable symbols )
+            {
+                symbols.closeScopes();
+            }
+
+            public String encode()
+            {
+                return String.valueOf( CLOSE_ALL );
+            }
+        } );
+    }
+
+    /**
+     * Record the extension of the current scope.
+     *
+     * @param name the name of the extension scope
+     */
+    public void extend( final String name )
+    {
+        entries.add( new Entry()
+        {
+            public void replay( final SymbolTable symbols )
+            {
+                symbols.extend( name );
+            }
+
+            public String encode()
+            {
+                return EXTEND + name;
+            }
+        } );
+    }
+
+    /**
+     * Record the binding of a node to the current scope.
+     *
+     * @param node the node
+     */
+    public void bind( final SimpleNode node )
+    {
+        entries.add( new Entry()
+        {
+            public void replay( final SymbolTable symbols )
+            {
+                node.openScope( node.getFirstToken(), symbols.getCurrentScope() );
+            }
+
+            public String encode()
+            {
+                return null;
+            }
+        } );
+    }
+
+    /**
+     * Replay all recorded operations on a symbol table.
+     *
+     * @param symbols the symbol table
+     */
+    public void replay( final SymbolTable symbols )
+    {
+        for( final Entry entry : entries )
+            entry.replay( symbols );
+    }
+
+    /**
+     * Discard the node bindings recorded so far.
+     * <p>
+     * Once replayed the bindings are not needed anymore and would otherwise keep the nodes reachable.
+     */
+    public void unbind()
+    {
+        final Iterator<Entry> iterator = entries.iterator();
+        while( iterator.hasNext() )
+            if( iterator.next().encode() == null )
+                iterator.remove();
+    }
+
+    /**
+     * Discard all recorded operations.
+     */
+    public void clear()
+    {
+        entries.clear();
+    }
+
+    /**
+     * Retrieve the recorded scope operations in a textual form.
+     * <p>
+     * Node bindings are left out as they only make sense along with the nodes themselves.
+     *
+     * @return the encoded operations
+     */
+    public List<String> getOperations()
+    {
+        final List<String> operations = new ArrayList<String>();
+        for( final Entry entry : entries )
+        {
+            final String operation = entry.encode();
+            if( operation != null )
+                operations.add( operation );
+        }
+        return operations;
+    }
+
+    /**
+     * Record scope operations previously retrieved with {@link #getOperations()}.
+     *
+     * @param operations the encoded operations
+     */
+    public void addOperations( final List<String> operations )
+    {
+        for( final String operation : operations )
+            addOperation( operation );
+    }
+
+    /**
+     * Record scope operations previously retrieved with {@link #getOperations()} before all the operations recorded so
+     * far.
+     *
+     * @param operations the encoded operations
+     */
+    public void insertOperations( final List<String> operations )
+    {
+        final SymbolJournal journal = new SymbolJournal();
+        journal.addOperations( operations );
+        entries.addAll( 0, journal.entries );
+    }
+
+    private void addOperation( final String operation )
+    {
+        final String name = operation.substring( 1 );
+        switch( operation.charAt( 0 ) )
+        {
+            case OPEN :
+                openScope( name );
+                break;
+            case CLOSE :
+                closeScope();
+                break;
+            case CLOSE_ALL :
+                closeScopes();
+                break;
+            case EXTEND :
+                extend( name );
+                break;
+            default :
+                throw new IllegalArgumentException( "invalid scope operation '" + operation + "'" );
+        }
+    }
+}
@@ -97,7 +97,7 @@ public final class SymbolTable
         if( name == null )
             return null;
         if( name.indexOf( "::" ) == 0 )
-            return root.getScope( name.substring( 2 ) );
+            return root.getScope( name, 2, name.length() );
         return current.getScope( name );
     }
 }
@@ -36,7 +36,7 @@ import java.util.List;
  *
  * @author Mathieu Champlon
  */
-public final class VisitorComposite implements ParserVisitor
+public final class VisitorComposite implements CommentVisitor
 {
     private final List<ParserVisitor> visitors = new ArrayList<ParserVisitor>();
 
@@ -50,6 +50,17 @@ public final class VisitorComposite implements ParserVisitor
         visitors.add( visitor );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public boolean readsComments()
+    {
+        for( final ParserVisitor visitor : visitors )
+            if( visitor instanceof CommentVisitor && ((CommentVisitor)visitor).readsComments() )
+                return true;
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -30,17 +30,14 @@ package cppncss;
 
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 import cppast.VisitorComposite;
-import cppncss.counter.CcnCounter;
-import cppncss.counter.Counter;
-import cppncss.counter.CounterObserver;
-import cppncss.counter.FileVisitor;
-import cppncss.counter.FunctionCounter;
-import cppncss.counter.FunctionVisitor;
-import cppncss.counter.NcssCounter;
+import cppncss.counter.CounterObserverComposite;
+import cppncss.counter.MeasureVisitor;
+import cppncss.counter.Measurement;
 import cppncss.measure.AverageCollector;
 import cppncss.measure.Collector;
 import cppncss.measure.MeasureCollector;
@@ -51,6 +48,7 @@ import cpptools.FileObserverBeautifier;
 import cpptools.FileObserverComposite;
 import cpptools.Logger;
 import cpptools.Options;
+import cpptools.ResultCache;
 import cpptools.Usage;
 
 /**
@@ -60,39 +58,20 @@ import cpptools.Usage;
  */
 public final class CppNcss
 {
+    private static final String[] SETTINGS =
+    {
+            "D", "E", "I", "M", "e", "m", "p", "s"
+    };
     private final VisitorComposite visitors = new VisitorComposite();
     private final FileObserverComposite observers = new FileObserverComposite();
+    private final CounterObserverComposite functions = new CounterObserverComposite();
+    private final CounterObserverComposite files = new CounterObserverComposite();
     private final List<Collector> collectors = new ArrayList<Collector>();
+    private final MeasureRecorder recorder = new MeasureRecorder( functions, files );
     private final ResultOutput output;
+    private final ResultCache cache;
     private final Analyzer analyzer;
 
-    /**
-     * Provides a factory to create visitor wrappers from counters.
-     *
-     * @author Mathieu Champlon
-     */
-    private interface VisitorFactory
-    {
-        void register( Counter counter );
-    }
-
-    private final VisitorFactory functionVisitorFactory = new VisitorFactory()
-    {
-        public void register( final Counter counter )
-        {
-            visitors.register( new FunctionVisitor( counter ) );
-        }
-    };
-    private final VisitorFactory fileVisitorFactory = new VisitorFactory()
-    {
-        public void register( final Counter counter )
-        {
-            final FileVisitor visitor = new FileVisitor( counter );
-            observers.register( visitor );
-            visitors.register( visitor );
-        }
-    };
-
     /**
      * Create a CppNcss instance.
      *
@@ -103,30 +82,37 @@ public final class CppNcss
     public CppNcss( final Options options, final Logger logger ) throws Exception
     {
         output = createOutput( options );
+        cache = createCache( options );
         observers.register( logger );
-        analyzer = new Analyzer( options, visitors, new FileObserverBeautifier( options, observers ), logger );
-        register( options, new MeasureCollector( options, new ResultOutputAdapter( "Function", output ) ), functionVisitorFactory );
-        register( options, new AverageCollector( new ResultOutputAdapter( "Function", output ) ), functionVisitorFactory );
-        register( options, new MeasureCollector( options, new ResultOutputAdapter( "File", output ) ), fileVisitorFactory );
-        register( options, new AverageCollector( new ResultOutputAdapter( "File", output ) ), fileVisitorFactory );
-        register( options, new SumCollector( new ResultOutputAdapter( "Project", output ) ), fileVisitorFactory );
+        analyzer = new Analyzer( options, visitors, new FileObserverBeautifier( options, observers ), logger, cache );
+        register( new MeasureCollector( options, new ResultOutputAdapter( "Function", output ) ), functions );
+        register( new AverageCollector( new ResultOutputAdapter( "Function", output ) ), functions );
+        register( new MeasureCollector( options, new ResultOutputAdapter( "File", output ) ), files );
+        register( new AverageCollector( new ResultOutputAdapter( "File", output ) ), files );
+        register( new SumCollector( new ResultOutputAdapter( "Project", output ) ), files );
+        final MeasureVisitor visitor = new MeasureVisitor( filter( options ), recorder.getFunctionObserver(), recorder
+                .getFileObserver() );
+        observers.register( visitor );
+        visitors.register( visitor );
     }
 
-    private void register( final Options options, final Collector collector, final VisitorFactory factory )
+    private void register( final Collector collector, final CounterObserverComposite composite )
     {
         collectors.add( collector );
         observers.register( collector );
-        for( final String counter : filter( options ) )
-            factory.register( create( collector, counter ) );
+        composite.register( collector );
     }
 
-    private List<String> filter( final Options options )
+    private List<Measurement> filter( final Options options )
     {
-        final List<String> counters = new ArrayList<String>();
+        final List<Measurement> measurements = new ArrayList<Measurement>();
         for( final String value : extract( options ).split( "," ) )
-            if( !counters.contains( value ) )
-                counters.add( value );
-        return counters;
+        {
+            final Measurement measurement = create( value );
+            if( !measurements.contains( measurement ) )
+                measurements.add( measurement );
+        }
+        return measurements;
     }
 
     private String extract( final Options options )
@@ -137,26 +123,49 @@ public final class CppNcss
         return values.get( 0 );
     }
 
-    private Counter create( final CounterObserver observer, final String counter )
+    private Measurement create( final String measurement )
     {
-        if( counter.equals( "NCSS" ) )
-            return new NcssCounter( observer );
-        if( counter.equals( "CCN" ) )
-            return new CcnCounter( observer );
-        if( counter.equals( "function" ) )
-            return new FunctionCounter( observer );
-        throw new IllegalArgumentException( "invalid measurement '" + counter + "'" );
+        if( measurement.equals( "NCSS" ) )
+            return Measurement.NCSS;
+        if( measurement.equals( "CCN" ) )
+            return Measurement.CCN;
+        if( measurement.equals( "function" ) )
+            return Measurement.FUNCTIONS;
+        throw new IllegalArgumentException( "invalid measurement '" + measurement + "'" );
+    }
+
+    private ResultCache createCache( final Options options )
+    {
+        if( !options.hasOption( "c" ) )
+            return null;
+        final List<String> values = options.getOptionPropertyValues( "c" );
+        if( values.size() > 1 )
+            throw new IllegalArgumentException( "invalid multiple -c arguments" );
+        return new ResultCache( values.get( 0 ), getSettings( options ), recorder );
+    }
+
+    private String getSettings( final Options options )
+    {
+        final StringBuilder builder = new StringBuilder();
+        for( final String name : SETTINGS )
+            builder.append( name ).append( options.getOptionProperties( name ) ).append(
+                    options.getOptionPropertyValues( name ) );
+        return builder.toString();
     }
 
     /**
      * Run the analysis.
+     *
+     * @throws IOException if the result cache cannot be written
      */
-    public void run()
+    public void run() throws IOException
     {
         analyzer.run();
         for( final Collector collector : collectors )
             collector.flush();
         output.flush();
+        if( cache != null )
+            cache.save();
     }
 
     private ResultOutput createOutput( final Options options ) throws Exception
@@ -204,12 +213,20 @@ public final class CppNcss
         usage.addOption( "v", "be extra verbose" );
         usage.addOption( "k", "keep going on parsing errors" );
         usage.addOption( "r", "process directories recursively" );
+        usage.addOption( "e", "process java-like unicode escapes in sources" );
+        usage.addOption( "i", "ignore the comments while parsing unless needed" );
+        usage.addOption( "j=<threads>", "parse files using <threads> concurrent threads" );
         usage.addOption( "x", "output result as xml" );
         usage.addOption( "m=<measurements>", "output the <measurements> sorted in given order, default is equivalent to -m=NCSS,CCN,function" );
         usage.addOption( "n=<number>", "output only the top <number> results" );
         usage.addOption( "f=<file>", "output result to <file>" );
+        usage.addOption( "c=<file>", "cache results in <file> and reuse them for unchanged files" );
+        usage.addOption( "u=<file>", "update the results cached with -c for the changed and deleted files listed in <file>" );
         usage.addOption( "D<symbol>[=[<value>]]", "replace define <symbol> with <value>" );
         usage.addOption( "M<symbol>[=[<value>]]", "replace macro <symbol> with <value>" );
+        usage.addOption( "s", "skip the code disabled by conditional directives given the defines and macros" );
+        usage.addOption( "E", "expand the defines and macros defined in the sources as well" );
+        usage.addOption( "I<path>", "search the files included in <path> and parse each of them once" );
         usage.addOption( "p=<path>", "remove <path> prefix when displaying file names" );
         usage.display();
     }
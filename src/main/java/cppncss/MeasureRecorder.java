@@ -0,0 +1,144 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppncss;
+
+import java.util.List;
+import cppncss.counter.CounterObserver;
+import cpptools.CacheObserver;
+
+/**
+ * Records function and file measures in order to replay them later.
+ *
+ * @author Mathieu Champlon
+ */
+public final class MeasureRecorder implements CacheObserver
+{
+    private static final char FUNCTION = 'F';
+    private static final char FILE = 'S';
+    private static final char SEPARATOR = '\t';
+    private static final int FIELDS = 4;
+    private final Recorder functions;
+    private final Recorder files;
+    private List<String> records;
+
+    /**
+     * Forwards measures to an observer and records them.
+     *
+     * @author Mathieu Champlon
+     */
+    private final class Recorder implements CounterObserver
+    {
+        private final char type;
+        private final CounterObserver observer;
+
+        public Recorder( final char type, final CounterObserver observer )
+        {
+            this.type = type;
+            this.observer = observer;
+        }
+
+        public void notify( final String label, final String item, final int line, final int count )
+        {
+            observer.notify( label, item, line, count );
+            if( records != null )
+                records.add( type + label + SEPARATOR + line + SEPARATOR + count + SEPARATOR + item );
+        }
+    }
+
+    /**
+     * Create a measure recorder.
+     *
+     * @param functions the observer of function measures
+     * @param files the observer of file measures
+     */
+    public MeasureRecorder( final CounterObserver functions, final CounterObserver files )
+    {
+        if( functions == null )
+            throw new IllegalArgumentException( "argument 'functions' is null" );
+        if( files == null )
+            throw new IllegalArgumentException( "argument 'files' is null" );
+        this.functions = new Recorder( FUNCTION, functions );
+        this.files = new Recorder( FILE, files );
+    }
+
+    /**
+     * Retrieve the recording observer of function measures.
+     *
+     * @return the observer
+     */
+    public CounterObserver getFunctionObserver()
+    {
+        return functions;
+    }
+
+    /**
+     * Retrieve the recording observer of file measures.
+     *
+     * @return the observer
+     */
+    public CounterObserver getFileObserver()
+    {
+        return files;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void record( final List<String> records )
+    {
+        this.records = records;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void replay( final List<String> records )
+    {
+        for( final String record : records )
+            replay( record );
+    }
+
+    private void replay( final String record )
+    {
+        final String[] fields = record.substring( 1 ).split( String.valueOf( SEPARATOR ), FIELDS );
+        if( fields.length != FIELDS )
+            throw new IllegalArgumentException( "invalid record '" + record + "'" );
+        final CounterObserver observer = getObserver( record.charAt( 0 ) );
+        observer.notify( fields[0], fields[3], Integer.parseInt( fields[1] ), Integer.parseInt( fields[2] ) );
+    }
+
+    private CounterObserver getObserver( final char type )
+    {
+        if( type == FUNCTION )
+            return functions.observer;
+        if( type == FILE )
+            return files.observer;
+        throw new IllegalArgumentException( "invalid record type '" + type + "'" );
+    }
+}
@@ -28,47 +28,34 @@
 
 package cppncss;
 
-import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
 import java.util.List;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Result;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
+import cpptools.XmlWriter;
 
 /**
  * Implements an XML result output.
+ * <p>
+ * The elements are written as soon as they are notified instead of being kept in memory until the end.
  *
  * @author Mathieu Champlon
  */
 public final class XmlResultOutput extends AbstractResultOutput
 {
-    private final PrintStream stream;
-    private final Document document;
-    private final Element root;
-    private Element current;
+    private static final int MEASURE_DEPTH = 2;
+    private final XmlWriter writer;
 
     /**
      * Create an XML result output.
      *
      * @param stream the stream to write to
-     * @throws ParserConfigurationException if an error occurs
+     * @throws UnsupportedEncodingException if the encoding is not supported
      */
-    public XmlResultOutput( final PrintStream stream ) throws ParserConfigurationException
+    public XmlResultOutput( final PrintStream stream ) throws UnsupportedEncodingException
     {
         if( stream == null )
             throw new IllegalArgumentException( "parameter 'stream' is null" );
-        this.stream = stream;
-        this.document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
-        this.root = document.createElement( "cppncss" );
-        this.current = root;
+        this.writer = new XmlWriter( stream, "cppncss", 4 );
     }
 
     /**
@@ -76,21 +63,14 @@ public final class XmlResultOutput extends AbstractResultOutput
      */
     protected void printHeaders( final String type, final List<String> labels )
     {
-        current = addElement( root, "measure" );
-        current.setAttribute( "type", type );
-        current = addElement( current, "labels" );
-        addElement( current, "label" ).setTextContent( "Nr." );
+        writer.closeElements( MEASURE_DEPTH - 1 );
+        writer.openElement( "measure", "type", type );
+        writer.openElement( "labels" );
+        writer.addElement( "label", "Nr." );
         for( final String label : labels )
             if( !label.startsWith( type ) )
-                addElement( current, "label" ).setTextContent( label );
-        current = (Element)current.getParentNode();
-    }
-
-    private Element addElement( final Element element, final String name )
-    {
-        final Element result = document.createElement( name );
-        element.appendChild( result );
-        return result;
+                writer.addElement( "label", label );
+        writer.closeElements( MEASURE_DEPTH );
     }
 
     /**
@@ -98,7 +78,7 @@ public final class XmlResultOutput extends AbstractResultOutput
      */
     protected void printItem( final String item )
     {
-        current = (Element)current.getParentNode();
+        writer.closeElements( writer.getDepth() - 1 );
     }
 
     /**
@@ -106,7 +86,7 @@ public final class XmlResultOutput extends AbstractResultOutput
      */
     protected void printMeasurement( final String label, final int count )
     {
-        addElement( current, "value" ).setTextContent( Integer.toString( count ) );
+        writer.addElement( "value", Integer.toString( count ) );
     }
 
     /**
@@ -114,9 +94,8 @@ public final class XmlResultOutput extends AbstractResultOutput
      */
     protected void printIndex( final String item, final int index )
     {
-        current = addElement( current, "item" );
-        current.setAttribute( "name", item );
-        addElement( current, "value" ).setTextContent( Integer.toString( index ) );
+        writer.openElement( "item", "name", item );
+        writer.addElement( "value", Integer.toString( index ) );
     }
 
     /**
@@ -125,11 +104,7 @@ public final class XmlResultOutput extends AbstractResultOutput
     public void notify( final String type, final String label, final float average )
     {
         if( !label.startsWith( type ) )
-        {
-            final Element element = addElement( current, "average" );
-            element.setAttribute( "label", label );
-            element.setAttribute( "value", Float.toString( average ) );
-        }
+            writer.addEmptyElement( "average", "label", label, "value", Float.toString( average ) );
     }
 
     /**
@@ -137,9 +112,7 @@ public final class XmlResultOutput extends AbstractResultOutput
      */
     public void notify( final String type, final String label, final long sum )
     {
-        final Element element = addElement( current, "sum" );
-        element.setAttribute( "label", label );
-        element.setAttribute( "value", Long.toString( sum ) );
+        writer.addEmptyElement( "sum", "label", label, "value", Long.toString( sum ) );
     }
 
     /**
@@ -147,21 +120,6 @@ public final class XmlResultOutput extends AbstractResultOutput
      */
     public void flush()
     {
-        try
-        {
-            final Result result = new StreamResult( new OutputStreamWriter( stream ) );
-            final TransformerFactory factory = TransformerFactory.newInstance();
-            final Transformer transformer = factory.newTransformer();
-            transformer.setOutputProperty( "indent", "yes" );
-            transformer.transform( new DOMSource( root ), result );
-        }
-        catch( final TransformerConfigurationException e )
-        {
-            throw new RuntimeException( e );
-        }
-        catch( final TransformerException e )
-        {
-            throw new RuntimeException( e );
-        }
+        writer.finish();
     }
 }
@@ -28,30 +28,30 @@
 
 package cppncss.counter;
 
-import cppast.AbstractVisitor;
-
 /**
  * Factorizes counters common behaviours.
  *
  * @author Mathieu Champlon
  */
-public class AbstractCounter extends AbstractVisitor implements Counter
+public class AbstractCounter extends AbstractCountingVisitor implements Counter
 {
-    private final String label;
+    private final Measurement measurement;
     private final CounterObserver observer;
     private int count;
 
     /**
      * Create an abstract counter.
      *
-     * @param label the name of the measure
+     * @param measurement the measurement to count
      * @param observer a counter observer
      */
-    public AbstractCounter( final String label, final CounterObserver observer )
+    public AbstractCounter( final Measurement measurement, final CounterObserver observer )
     {
+        if( measurement == null )
+            throw new IllegalArgumentException( "argument 'measurement' is null" );
         if( observer == null )
             throw new IllegalArgumentException( "argument 'observer' is null" );
-        this.label = label;
+        this.measurement = measurement;
         this.observer = observer;
         this.count = 0;
     }
@@ -61,15 +61,16 @@ public class AbstractCounter extends AbstractVisitor implements Counter
      */
     public final void flush( final String item, final int line )
     {
-        observer.notify( label, item, line, count );
+        observer.notify( measurement.getLabel(), item, line, count );
         count = 0;
     }
 
     /**
-     * Increments the counter.
+     * {@inheritDoc}
      */
-    protected final void increment()
+    protected final void count( final Measurement measurement )
     {
-        ++count;
+        if( this.measurement == measurement )
+            ++count;
     }
 }
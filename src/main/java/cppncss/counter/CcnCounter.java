@@ -28,15 +28,6 @@
 
 package cppncss.counter;
 
-import cppast.AstCaseStatement;
-import cppast.AstCatchBlock;
-import cppast.AstConditionalExpression;
-import cppast.AstFunctionBody;
-import cppast.AstIfStatement;
-import cppast.AstIterationStatement;
-import cppast.AstLogicalAndExpression;
-import cppast.AstLogicalOrExpression;
-
 /**
  * Implements a CCN counter.
  *
@@ -51,78 +42,6 @@ public final class CcnCounter extends AbstractCounter
      */
     public CcnCounter( final CounterObserver observer )
     {
-        super( "CCN", observer );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstFunctionBody node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstIfStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstIterationStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstCaseStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstCatchBlock node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstLogicalAndExpression node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstLogicalOrExpression node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstConditionalExpression node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
+        super( Measurement.CCN, observer );
     }
 }
@@ -28,8 +28,6 @@
 
 package cppncss.counter;
 
-import cppast.AstFunctionBody;
-
 /**
  * Implements a function counter.
  *
@@ -44,15 +42,6 @@ public final class FunctionCounter extends AbstractCounter
      */
     public FunctionCounter( final CounterObserver observer )
     {
-        super( "Functions", observer );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstFunctionBody node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
+        super( Measurement.FUNCTIONS, observer );
     }
 }
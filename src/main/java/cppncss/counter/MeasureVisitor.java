@@ -0,0 +1,191 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppncss.counter;
+
+import java.util.ArrayList;
+import java.util.List;
+import cppast.AstConstructorDefinition;
+import cppast.AstDestructorDefinition;
+import cppast.AstFunctionDefinition;
+import cppast.AstTranslationUnit;
+import cppast.SimpleNode;
+import cpptools.FileObserver;
+
+/**
+ * Computes the measurements of every function and file in a single walk of the tree.
+ * <p>
+ * Functions are reported in the order they appear, each one including the measures of the functions it nests.
+ *
+ * @author Mathieu Champlon
+ */
+public final class MeasureVisitor extends AbstractCountingVisitor implements FileObserver
+{
+    private final List<Measurement> measurements;
+    private final CounterObserver functions;
+    private final CounterObserver files;
+    private final List<Frame> pending = new ArrayList<Frame>();
+    private Frame current;
+    private int depth;
+    private String filename;
+
+    /**
+     * Holds the measures of an item being visited.
+     *
+     * @author Mathieu Champlon
+     */
+    private static final class Frame
+    {
+        private final String item;
+        private final int line;
+        private final Frame parent;
+        private final int[] counts = new int[Measurement.values().length];
+
+        public Frame( final String item, final int line, final Frame parent )
+        {
+            this.item = item;
+            this.line = line;
+            this.parent = parent;
+        }
+
+        public void add( final Frame frame )
+        {
+            for( int index = 0; index < counts.length; ++index )
+                counts[index] += frame.counts[index];
+        }
+
+        public void flush( final List<Measurement> measurements, final CounterObserver observer )
+        {
+            for( final Measurement measurement : measurements )
+                observer.notify( measurement.getLabel(), item, line, counts[measurement.ordinal()] );
+        }
+    }
+
+    /**
+     * Create a measure visitor.
+     *
+     * @param measurements the measurements to report in order
+     * @param functions the observer of function measures
+     * @param files the observer of file measures
+     */
+    public MeasureVisitor( final List<Measurement> measurements, final CounterObserver functions,
+            final CounterObserver files )
+    {
+        if( measurements == null )
+            throw new IllegalArgumentException( "argument 'measurements' is null" );
+        if( functions == null )
+            throw new IllegalArgumentException( "argument 'functions' is null" );
+        if( files == null )
+            throw new IllegalArgumentException( "argument 'files' is null" );
+        this.measurements = measurements;
+        this.functions = functions;
+        this.files = files;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object visit( final AstTranslationUnit node, final Object data )
+    {
+        final Frame file = new Frame( filename, node.getFirstToken().beginLine, current );
+        current = file;
+        final Object result = node.accept( this, data );
+        current = file.parent;
+        file.flush( measurements, files );
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object visit( final AstFunctionDefinition node, final Object data )
+    {
+        return process( node, data );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object visit( final AstConstructorDefinition node, final Object data )
+    {
+        return process( node, data );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object visit( final AstDestructorDefinition node, final Object data )
+    {
+        return process( node, data );
+    }
+
+    private Object process( final SimpleNode node, final Object data )
+    {
+        final Frame function = new Frame( getFunctionName( node ), node.getFirstToken().beginLine, current );
+        pending.add( function );
+        current = function;
+        ++depth;
+        final Object result = node.accept( this, data );
+        --depth;
+        current = function.parent;
+        if( current != null )
+            current.add( function );
+        if( depth == 0 )
+            flush();
+        return result;
+    }
+
+    private void flush()
+    {
+        for( final Frame function : pending )
+            function.flush( measurements, functions );
+        pending.clear();
+    }
+
+    private String getFunctionName( final SimpleNode node )
+    {
+        return (String)new FunctionNameExtractor().visit( node, null );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void count( final Measurement measurement )
+    {
+        if( current != null )
+            ++current.counts[measurement.ordinal()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void changed( final String filename )
+    {
+        this.filename = filename;
+    }
+}
@@ -28,28 +28,6 @@
 
 package cppncss.counter;
 
-import cppast.AstBreakStatement;
-import cppast.AstCaseStatement;
-import cppast.AstCatchBlock;
-import cppast.AstConstructorDeclaration;
-import cppast.AstConstructorInitializer;
-import cppast.AstContinueStatement;
-import cppast.AstDeclaration;
-import cppast.AstDefaultStatement;
-import cppast.AstDestructorDeclaration;
-import cppast.AstElseStatement;
-import cppast.AstExpressionStatement;
-import cppast.AstFunctionBody;
-import cppast.AstFunctionDeclaration;
-import cppast.AstGotoStatement;
-import cppast.AstIfStatement;
-import cppast.AstIterationStatement;
-import cppast.AstLabelStatement;
-import cppast.AstMemberDeclaration;
-import cppast.AstNamespaceDefinition;
-import cppast.AstReturnStatement;
-import cppast.AstSwitchStatement;
-
 /**
  * Implements a NCSS counter.
  *
@@ -64,195 +42,6 @@ public final class NcssCounter extends AbstractCounter
      */
     public NcssCounter( final CounterObserver observer )
     {
-        super( "NCSS", observer );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstFunctionBody node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstConstructorInitializer node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstDeclaration node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstExpressionStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstIfStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstElseStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstIterationStatement node, final Object data ) // FIXME homogeneity
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstSwitchStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstGotoStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstBreakStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstContinueStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstReturnStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstLabelStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstCaseStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstDefaultStatement node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstCatchBlock node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstNamespaceDefinition node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstMemberDeclaration node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstFunctionDeclaration node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstConstructorDeclaration node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstDestructorDeclaration node, final Object data )
-    {
-        increment();
-        return node.accept( this, data );
+        super( Measurement.NCSS, observer );
     }
 }
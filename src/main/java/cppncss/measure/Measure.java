@@ -42,6 +42,52 @@ public final class Measure implements Comparable<Measure>
     private final String item;
     private final String filename;
     private final int line;
+    private final Key key;
+
+    /**
+     * Identifies a measured item.
+     *
+     * @author Mathieu Champlon
+     */
+    static final class Key
+    {
+        private final String item;
+        private final String filename;
+        private final int line;
+
+        /**
+         * Create a key.
+         *
+         * @param item the name of the measured item
+         * @param filename the name of the file containing the item
+         * @param line the location of the item within the file
+         */
+        public Key( final String item, final String filename, final int line )
+        {
+            this.item = item;
+            this.filename = filename;
+            this.line = line;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public boolean equals( final Object object )
+        {
+            if( !(object instanceof Key) )
+                return false;
+            final Key other = (Key)object;
+            return line == other.line && item.equals( other.item ) && filename.equals( other.filename );
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int hashCode()
+        {
+            return (item.hashCode() * 31 + filename.hashCode()) * 31 + line;
+        }
+    }
 
     /**
      * Create a measure.
@@ -63,6 +109,17 @@ public final class Measure implements Comparable<Measure>
         this.item = item;
         this.filename = filename;
         this.line = line;
+        this.key = new Key( item, filename, line );
+    }
+
+    /**
+     * Retrieve the key identifying the measured item.
+     *
+     * @return the key
+     */
+    Key getKey()
+    {
+        return key;
     }
 
     /**
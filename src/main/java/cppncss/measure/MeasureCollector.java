@@ -29,23 +29,26 @@
 package cppncss.measure;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.Map;
 import cpptools.Options;
 
 /**
  * Collects measures.
  * <p>
- * The results are sorted according to the value of the first measure.
+ * The results are sorted according to the value of the first measure, items with the same value being kept in the
+ * order they have been recorded.
  * <p>
- * The different measures for a given item must be recorded one after another.
+ * The first measure of an item must be recorded before the other ones, which are then attached to it by looking up
+ * the item name, file name and location.
  *
  * @author Mathieu Champlon
  */
 public final class MeasureCollector implements Collector
 {
-    private final int threshold;
-    private final TreeSet<Measure> result = new TreeSet<Measure>();
+    private final Ranking ranking;
+    private final Map<Measure.Key, Measure> measures = new HashMap<Measure.Key, Measure>();
     private final List<String> labels = new ArrayList<String>();
     private final MeasureObserver observer;
     private String index;
@@ -61,7 +64,7 @@ public final class MeasureCollector implements Collector
     {
         if( observer == null )
             throw new IllegalArgumentException( "argument 'observer' is null" );
-        this.threshold = getThreshold( options );
+        this.ranking = new Ranking( getThreshold( options ) );
         this.observer = observer;
     }
 
@@ -95,15 +98,18 @@ public final class MeasureCollector implements Collector
 
     private void update( final String item, final int line, final int count )
     {
-        for( Measure measure : result )
+        final Measure measure = measures.get( new Measure.Key( item, filename, line ) );
+        if( measure != null )
             measure.update( item, filename, line, count );
     }
 
     private void insert( final String item, final int line, final int count )
     {
-        result.add( new Measure( item, filename, line, count ) );
-        if( threshold >= 0 && result.size() > threshold )
-            result.remove( result.last() );
+        final Measure measure = new Measure( item, filename, line, count );
+        measures.put( measure.getKey(), measure );
+        final Measure evicted = ranking.add( measure, count );
+        if( evicted != null && measures.get( evicted.getKey() ) == evicted )
+            measures.remove( evicted.getKey() );
     }
 
     /**
@@ -120,7 +126,7 @@ public final class MeasureCollector implements Collector
     public void flush()
     {
         observer.notify( labels );
-        for( Measure measure : result )
+        for( Measure measure : ranking.getMeasures() )
             measure.accept( observer );
     }
 }
@@ -0,0 +1,136 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppncss.measure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Ranks measures by decreasing value.
+ * <p>
+ * Measures of equal value are ranked in insertion order. When a threshold is given only the highest measures are kept
+ * in a bounded heap, the lowest one being on top to be evicted first.
+ *
+ * @author Mathieu Champlon
+ */
+final class Ranking
+{
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Comparator<Entry> LOWEST_FIRST = new Comparator<Entry>()
+    {
+        public int compare( final Entry lhs, final Entry rhs )
+        {
+            if( lhs.count != rhs.count )
+                return lhs.count < rhs.count ? -1 : 1;
+            if( lhs.sequence != rhs.sequence )
+                return lhs.sequence > rhs.sequence ? -1 : 1;
+            return 0;
+        }
+    };
+    private final int threshold;
+    private final PriorityQueue<Entry> entries;
+    private long sequence;
+
+    /**
+     * Associates a measure to its ranking criteria.
+     *
+     * @author Mathieu Champlon
+     */
+    private static final class Entry
+    {
+        private final Measure measure;
+        private final int count;
+        private final long sequence;
+
+        public Entry( final Measure measure, final int count, final long sequence )
+        {
+            this.measure = measure;
+            this.count = count;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Create a ranking.
+     *
+     * @param threshold the maximum number of measures to keep, or a negative value to keep them all
+     */
+    public Ranking( final int threshold )
+    {
+        this.threshold = threshold;
+        this.entries = new PriorityQueue<Entry>( capacity( threshold ), LOWEST_FIRST );
+    }
+
+    private static int capacity( final int threshold )
+    {
+        if( threshold < 0 || threshold > INITIAL_CAPACITY )
+            return INITIAL_CAPACITY;
+        return threshold + 1;
+    }
+
+    /**
+     * Rank a measure.
+     *
+     * @param measure the measure
+     * @param count the value to rank the measure with
+     * @return the measure evicted from the ranking, possibly the given one, or null if none
+     */
+    public Measure add( final Measure measure, final int count )
+    {
+        final Entry entry = new Entry( measure, count, sequence++ );
+        if( threshold < 0 || entries.size() < threshold )
+        {
+            entries.add( entry );
+            return null;
+        }
+        if( threshold == 0 || LOWEST_FIRST.compare( entry, entries.peek() ) <= 0 )
+            return measure;
+        final Entry lowest = entries.poll();
+        entries.add( entry );
+        return lowest.measure;
+    }
+
+    /**
+     * Retrieve the ranked measures.
+     *
+     * @return the measures sorted by decreasing value
+     */
+    public List<Measure> getMeasures()
+    {
+        final List<Entry> sorted = new ArrayList<Entry>( entries );
+        Collections.sort( sorted, Collections.reverseOrder( LOWEST_FIRST ) );
+        final List<Measure> measures = new ArrayList<Measure>( sorted.size() );
+        for( Entry entry : sorted )
+            measures.add( entry.measure );
+        return measures;
+    }
+}
@@ -0,0 +1,372 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import cppast.AbstractVisitor;
+import cppast.AstTranslationUnit;
+import cppast.CommentVisitor;
+import cppast.ParserVisitor;
+import cppast.VisitorComposite;
+import cppstyle.checks.CheckListener;
+import cppstyle.checks.DeclarationObserver;
+import cppstyle.checks.DeclarationScanner;
+import cppstyle.checks.FileContentObserver;
+import cppstyle.checks.LineObserver;
+import cppstyle.checks.LineScanner;
+import cpptools.ContentObserver;
+import cpptools.EventHandler;
+import cpptools.FileContent;
+import cpptools.FileObserver;
+
+/**
+ * Runs the configured checks on the files walked by an analyzer.
+ * <p>
+ * The checks of each file are run on a pool of threads, each thread building its own instances of the checks from the
+ * modules configuration. The failures are buffered per file and output in the files order, thus the output does not
+ * depend on the number of threads.
+ *
+ * @author Mathieu Champlon
+ */
+public final class CheckRunner extends AbstractVisitor implements ContentObserver, CommentVisitor
+{
+    private static final int PENDING_FILES_PER_THREAD = 2;
+    private final List<Module> modules = new ArrayList<Module>();
+    private final Checks prototype = new Checks( new FailureBuffer() );
+    private final LinkedList<Job> pending = new LinkedList<Job>();
+    private final FileObserver observer;
+    private final CheckListener listener;
+    private final EventHandler handler;
+    private final int threads;
+    private final ExecutorService executor;
+    private final ThreadLocal<Checks> checks = new ThreadLocal<Checks>()
+    {
+        protected Checks initialValue()
+        {
+            final Checks result = new Checks( new FailureBuffer() );
+            for( final Module module : modules )
+                result.load( module );
+            return result;
+        }
+    };
+    private Job current;
+
+    /**
+     * Create a check runner.
+     *
+     * @param threads the number of threads
+     * @param observer the file observer notified before the failures of each file
+     * @param listener the listener of the failures
+     * @param handler the handler of errors raised by checks
+     */
+    public CheckRunner( final int threads, final FileObserver observer, final CheckListener listener,
+            final EventHandler handler )
+    {
+        if( observer == null )
+            throw new IllegalArgumentException( "argument 'observer' is null" );
+        if( listener == null )
+            throw new IllegalArgumentException( "argument 'listener' is null" );
+        if( handler == null )
+            throw new IllegalArgumentException( "argument 'handler' is null" );
+        this.observer = observer;
+        this.listener = listener;
+        this.handler = handler;
+        this.threads = threads;
+        this.executor = threads > 1 ? Executors.newFixedThreadPool( threads ) : null;
+    }
+
+    private static final class Module
+    {
+        private final String name;
+        private final Properties properties;
+
+        public Module( final String name, final Properties properties )
+        {
+            this.name = name;
+            this.properties = properties;
+        }
+
+        public Object load( final CheckListener listener ) throws Exception
+        {
+            return Class.forName( "cppstyle.checks." + name + "Check" ).getConstructor( new Class<?>[]
+            {
+                    CheckListener.class, Properties.class
+            } ).newInstance( new Object[]
+            {
+                    listener, properties
+            } );
+        }
+    }
+
+    /**
+     * Holds a set of check instances bound to a single thread.
+     *
+     * @author Mathieu Champlon
+     */
+    private static final class Checks
+    {
+        private final VisitorComposite visitors = new VisitorComposite();
+        private final List<FileContentObserver> observers = new ArrayList<FileContentObserver>();
+        private final FailureBuffer buffer;
+        private LineScanner lines;
+        private DeclarationScanner declarations;
+
+        public Checks( final FailureBuffer buffer )
+        {
+            this.buffer = buffer;
+        }
+
+        public void load( final Module module )
+        {
+            try
+            {
+                add( module.load( buffer ) );
+            }
+            catch( final Exception e )
+            {
+                throw new RuntimeException( e );
+            }
+        }
+
+        public void add( final Object check )
+        {
+            if( check instanceof DeclarationObserver )
+                addDeclarationObserver( (DeclarationObserver)check );
+            else if( check instanceof ParserVisitor )
+                visitors.register( (ParserVisitor)check );
+            if( check instanceof LineObserver )
+                addLineObserver( (LineObserver)check );
+            else if( check instanceof FileContentObserver )
+                observers.add( (FileContentObserver)check );
+        }
+
+        private void addLineObserver( final LineObserver observer )
+        {
+            if( lines == null )
+            {
+                lines = new LineScanner();
+                observers.add( lines );
+            }
+            lines.register( observer );
+        }
+
+        private void addDeclarationObserver( final DeclarationObserver observer )
+        {
+            if( declarations == null )
+            {
+                declarations = new DeclarationScanner();
+                visitors.register( declarations );
+            }
+            declarations.register( observer );
+        }
+
+        public boolean readsComments()
+        {
+            return visitors.readsComments();
+        }
+
+        public void check( final FileContent content, final AstTranslationUnit tree )
+        {
+            if( content != null && !observers.isEmpty() )
+            {
+                final String text = content.getText();
+                for( final FileContentObserver observer : observers )
+                    observer.notify( text );
+            }
+            if( tree != null )
+                tree.jjtAccept( visitors, null );
+        }
+
+        public FailureBuffer take()
+        {
+            return buffer.take();
+        }
+    }
+
+    /**
+     * Holds the checking of a file.
+     *
+     * @author Mathieu Champlon
+     */
+    private final class Job implements Runnable
+    {
+        private final String filename;
+        private final FutureTask<Object> task = new FutureTask<Object>( this, null );
+        private FileContent content;
+        private AstTranslationUnit tree;
+        private FailureBuffer failures;
+        private Throwable error;
+
+        public Job( final String filename )
+        {
+            this.filename = filename;
+        }
+
+        public void run()
+        {
+            try
+            {
+                check( checks.get() );
+            }
+            catch( final Throwable throwable )
+            {
+                error = throwable;
+            }
+            finally
+            {
+                content = null;
+                tree = null;
+            }
+        }
+
+        private void check( final Checks instance )
+        {
+            try
+            {
+                instance.check( content, tree );
+            }
+            finally
+            {
+                failures = instance.take();
+            }
+        }
+
+        public void emit()
+        {
+            try
+            {
+                task.get();
+            }
+            catch( final InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                error = e;
+            }
+            catch( final ExecutionException e )
+            {
+                error = e.getCause();
+            }
+            observer.changed( filename );
+            if( failures != null )
+                failures.replay( listener );
+            if( error != null )
+                handler.error( filename, error, error.getMessage() );
+        }
+    }
+
+    /**
+     * Register a check module.
+     * <p>
+     * The module is loaded right away in order to validate its configuration.
+     *
+     * @param name the module name
+     * @param properties the module properties
+     * @throws Exception if the module cannot be loaded
+     */
+    public void register( final String name, final Properties properties ) throws Exception
+    {
+        final Module module = new Module( name, properties );
+        prototype.add( module.load( new FailureBuffer() ) );
+        modules.add( module );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean readsComments()
+    {
+        return prototype.readsComments();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void changed( final String filename )
+    {
+        submit();
+        current = new Job( filename );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void notify( final FileContent content )
+    {
+        current.content = content;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object visit( final AstTranslationUnit node, final Object data )
+    {
+        current.tree = node;
+        return data;
+    }
+
+    private void submit()
+    {
+        if( current == null )
+            return;
+        if( executor == null )
+            current.task.run();
+        else
+            executor.execute( current.task );
+        pending.add( current );
+        current = null;
+        while( !pending.isEmpty()
+                && (pending.getFirst().task.isDone() || pending.size() > threads * PENDING_FILES_PER_THREAD) )
+            pending.removeFirst().emit();
+    }
+
+    /**
+     * Wait for the checks of all the files to complete and output the remaining failures.
+     */
+    public void finish()
+    {
+        try
+        {
+            submit();
+            while( !pending.isEmpty() )
+                pending.removeFirst().emit();
+        }
+        finally
+        {
+            if( executor != null )
+                executor.shutdownNow();
+        }
+    }
+}
@@ -31,17 +31,12 @@ package cppstyle;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
 import java.util.Properties;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import cppast.ParserVisitor;
-import cppast.VisitorComposite;
-import cppstyle.checks.CheckListener;
-import cppstyle.checks.FileContentObserver;
-import cppstyle.checks.FileContentProvider;
 import cpptools.Analyzer;
 import cpptools.ConsoleLogger;
 import cpptools.FileObserverBeautifier;
@@ -57,9 +52,8 @@ import cpptools.Usage;
  */
 public final class CppStyle
 {
-    private final VisitorComposite visitors = new VisitorComposite();
-    private final FileObserverComposite observers = new FileObserverComposite();
     private final ResultOutput output;
+    private final CheckRunner runner;
     private final Analyzer analyzer;
 
     /**
@@ -74,13 +68,15 @@ public final class CppStyle
         if( !options.hasOption( "c" ) )
             throw new IllegalArgumentException( "missing mandatory configuration file" );
         output = createOutput( options, createStream( options ) );
-        observers.register( new FileObserverBeautifier( options, output ) );
-        observers.register( logger );
-        analyzer = new Analyzer( options, visitors, observers, logger );
+        runner = new CheckRunner( Analyzer.getThreads( options ), new FileObserverBeautifier( options, output ), output, logger );
         populate( options.getOptionPropertyValues( "c" ).get( 0 ) );
+        final FileObserverComposite observers = new FileObserverComposite();
+        observers.register( runner );
+        observers.register( logger );
+        analyzer = new Analyzer( options, runner, observers, logger );
     }
 
-    private ResultOutput createOutput( final Options options, final PrintStream stream ) throws ParserConfigurationException
+    private ResultOutput createOutput( final Options options, final PrintStream stream ) throws UnsupportedEncodingException
     {
         if( options.hasOption( "x" ) )
             return new XmlResultOutput( stream );
@@ -108,7 +104,7 @@ public final class CppStyle
                 {
                     final String name = extract( node, "name" );
                     final Properties properties = transform( node.getChildNodes() );
-                    register( name, properties );
+                    runner.register( name, properties );
                 }
             }
         }
@@ -135,33 +131,20 @@ public final class CppStyle
         return properties;
     }
 
-    private void register( final String name, final Properties properties ) throws Exception
-    {
-        final Object module = load( name, properties );
-        if( module instanceof ParserVisitor )
-            visitors.register( (ParserVisitor)module );
-        if( module instanceof FileContentObserver )
-            observers.register( new FileContentProvider( (FileContentObserver)module ) );
-    }
-
-    private Object load( final String module, final Properties properties ) throws Exception
-    {
-        return Class.forName( "cppstyle.checks." + module + "Check" ).getConstructor( new Class[]
-        {
-                CheckListener.class, Properties.class
-        } ).newInstance( new Object[]
-        {
-                output, properties
-        } );
-    }
-
     /**
      * Run the analysis.
      */
     public void run()
     {
-        analyzer.run();
-        output.flush();
+        try
+        {
+            analyzer.run();
+        }
+        finally
+        {
+            runner.finish();
+            output.flush();
+        }
     }
 
     /**
@@ -194,11 +177,17 @@ public final class CppStyle
         usage.addOption( "v", "be extra verbose" );
         usage.addOption( "k", "keep going on parsing errors" );
         usage.addOption( "r", "process directories recursively" );
+        usage.addOption( "e", "process java-like unicode escapes in sources" );
+        usage.addOption( "i", "ignore the comments while parsing unless needed" );
+        usage.addOption( "j=<threads>", "parse and check files using <threads> concurrent threads" );
         usage.addOption( "x", "output result as xml" );
         usage.addOption( "c=<file>", "use the given configuration file" );
         usage.addOption( "f=<file>", "output result to the given file" );
         usage.addOption( "D<symbol>[=[<value>]]", "replace define <symbol> with <value>" );
         usage.addOption( "M<symbol>[=[<value>]]", "replace macro <symbol> with <value>" );
+        usage.addOption( "s", "skip the code disabled by conditional directives given the defines and macros" );
+        usage.addOption( "E", "expand the defines and macros defined in the sources as well" );
+        usage.addOption( "I<path>", "search the files included in <path> and parse each of them once" );
         usage.addOption( "p=<path>", "remove <path> prefix when displaying file names" );
         usage.display();
     }
@@ -0,0 +1,117 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle;
+
+import java.util.ArrayList;
+import java.util.List;
+import cppstyle.checks.CheckListener;
+
+/**
+ * Buffers check failures to be replayed later on.
+ *
+ * @author Mathieu Champlon
+ */
+public final class FailureBuffer implements CheckListener
+{
+    private List<Failure> failures = new ArrayList<Failure>();
+
+    private static final class Failure
+    {
+        private final String reason;
+        private final int start;
+        private final int end;
+        private final int lines;
+
+        public Failure( final String reason, final int start, final int end, final int lines )
+        {
+            this.reason = reason;
+            this.start = start;
+            this.end = end;
+            this.lines = lines;
+        }
+
+        public void notify( final CheckListener listener )
+        {
+            if( lines == 0 )
+                listener.fail( reason );
+            else if( lines == 1 )
+                listener.fail( reason, start );
+            else
+                listener.fail( reason, start, end );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void fail( final String reason, final int start, final int end )
+    {
+        failures.add( new Failure( reason, start, end, 2 ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void fail( final String reason, final int line )
+    {
+        failures.add( new Failure( reason, line, line, 1 ) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void fail( final String reason )
+    {
+        failures.add( new Failure( reason, 0, 0, 0 ) );
+    }
+
+    /**
+     * Hand over the failures buffered so far.
+     *
+     * @return a buffer holding the failures, this one being emptied
+     */
+    public FailureBuffer take()
+    {
+        final FailureBuffer result = new FailureBuffer();
+        result.failures = failures;
+        failures = new ArrayList<Failure>();
+        return result;
+    }
+
+    /**
+     * Replay the buffered failures in order.
+     *
+     * @param listener the listener to notify
+     */
+    public void replay( final CheckListener listener )
+    {
+        for( final Failure failure : failures )
+            failure.notify( listener );
+    }
+}
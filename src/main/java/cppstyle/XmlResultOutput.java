@@ -28,46 +28,34 @@
 
 package cppstyle;
 
-import java.io.OutputStreamWriter;
 import java.io.PrintStream;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Result;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
+import java.io.UnsupportedEncodingException;
+import cpptools.XmlWriter;
 
 /**
  * Implements an XML logger.
+ * <p>
+ * Each file block is written out as soon as the next file is processed.
  *
  * @author Mathieu Champlon
  */
 public final class XmlResultOutput implements ResultOutput
 {
-    private final PrintStream stream;
-    private final Document document;
-    private final Element root;
-    private Element current;
+    private static final int FILE_DEPTH = 2;
+    private final XmlWriter writer;
+    private String filename;
 
     /**
      * Create an AsciiCheckListener.
      *
      * @param stream the output stream
-     * @throws ParserConfigurationException if an error occurs
+     * @throws UnsupportedEncodingException if the encoding is not supported
      */
-    public XmlResultOutput( final PrintStream stream ) throws ParserConfigurationException
+    public XmlResultOutput( final PrintStream stream ) throws UnsupportedEncodingException
     {
         if( stream == null )
             throw new IllegalArgumentException( "parameter 'stream' is null" );
-        this.stream = stream;
-        this.document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
-        this.root = document.createElement( "cppstyle" );
-        this.current = root;
+        this.writer = new XmlWriter( stream, "cppstyle", 2 );
     }
 
     /**
@@ -79,9 +67,8 @@ public final class XmlResultOutput implements ResultOutput
             fail( reason, start );
         else
         {
-            final Element error = addElement( current, "error" );
-            error.setAttribute( "line", start + "-" + end );
-            error.setAttribute( "message", reason );
+            open();
+            writer.addEmptyElement( "error", "line", start + "-" + end, "message", reason );
         }
     }
 
@@ -90,9 +77,8 @@ public final class XmlResultOutput implements ResultOutput
      */
     public void fail( final String reason, final int line )
     {
-        final Element error = addElement( current, "error" );
-        error.setAttribute( "line", Integer.toString( line ) );
-        error.setAttribute( "message", reason );
+        open();
+        writer.addEmptyElement( "error", "line", Integer.toString( line ), "message", reason );
     }
 
     /**
@@ -100,8 +86,8 @@ public final class XmlResultOutput implements ResultOutput
      */
     public void fail( final String reason )
     {
-        final Element error = addElement( current, "error" );
-        error.setAttribute( "message", reason );
+        open();
+        writer.addEmptyElement( "error", "message", reason );
     }
 
     /**
@@ -109,15 +95,25 @@ public final class XmlResultOutput implements ResultOutput
      */
     public void changed( final String filename )
     {
-        current = addElement( root, "file" );
-        current.setAttribute( "name", filename );
+        close();
+        writer.flush();
+        this.filename = filename;
     }
 
-    private Element addElement( final Element element, final String name )
+    private void open()
     {
-        final Element result = document.createElement( name );
-        element.appendChild( result );
-        return result;
+        if( filename != null )
+        {
+            writer.openElement( "file", "name", filename );
+            filename = null;
+        }
+    }
+
+    private void close()
+    {
+        if( filename != null )
+            writer.addEmptyElement( "file", "name", filename );
+        writer.closeElements( FILE_DEPTH - 1 );
     }
 
     /**
@@ -125,22 +121,8 @@ public final class XmlResultOutput implements ResultOutput
      */
     public void flush()
     {
-        try
-        {
-            final Result result = new StreamResult( new OutputStreamWriter( stream ) );
-            final TransformerFactory factory = TransformerFactory.newInstance();
-            factory.setAttribute( "indent-number", 2 );
-            final Transformer transformer = factory.newTransformer();
-            transformer.setOutputProperty( "indent", "yes" );
-            transformer.transform( new DOMSource( root ), result );
-        }
-        catch( final TransformerConfigurationException e )
-        {
-            throw new RuntimeException( e );
-        }
-        catch( final TransformerException e )
-        {
-            throw new RuntimeException( e );
-        }
+        close();
+        filename = null;
+        writer.finish();
     }
 }
@@ -26,49 +26,26 @@
  * POSSIBILITY OF SUCH DAMAGE.
  */
 
-package cppncss.counter;
+package cppstyle.checks;
 
 import cppast.AbstractVisitor;
 import cppast.AstTranslationUnit;
-import cpptools.FileObserver;
 
 /**
- * Implements a visitor for files.
+ * Abstracts behavior common to all checks working on declared names.
  *
  * @author Mathieu Champlon
  */
-public final class FileVisitor extends AbstractVisitor implements FileObserver
+public abstract class AbstractDeclarationCheck extends AbstractVisitor implements DeclarationObserver
 {
-    private final Counter counter;
-    private String filename;
-
-    /**
-     * Create a function visitor.
-     *
-     * @param counter the counter to apply
-     */
-    public FileVisitor( final Counter counter )
-    {
-        if( counter == null )
-            throw new IllegalArgumentException( "argument 'counter' is null" );
-        this.counter = counter;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstTranslationUnit node, final Object data )
-    {
-        node.accept( counter, data );
-        counter.flush( filename, node.getFirstToken().beginLine );
-        return node.accept( this, data );
-    }
-
     /**
      * {@inheritDoc}
      */
-    public void changed( final String filename )
+    public final Object visit( final AstTranslationUnit node, final Object data )
     {
-        this.filename = filename;
+        final Declarations declarations = new Declarations();
+        declarations.scan( node );
+        notify( declarations );
+        return data;
     }
 }
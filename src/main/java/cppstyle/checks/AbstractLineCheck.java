@@ -33,23 +33,15 @@ package cppstyle.checks;
  *
  * @author Mathieu Champlon
  */
-public abstract class AbstractLineCheck implements FileContentObserver
+public abstract class AbstractLineCheck implements FileContentObserver, LineObserver
 {
     /**
      * {@inheritDoc}
      */
     public final void notify( final String content )
     {
-        final String[] lines = content.split( "\r\n|\r|\n" );
-        for( int line = 0; line < lines.length; ++line )
-            check( lines[line], line + 1 );
+        final Lines lines = new Lines();
+        lines.scan( content );
+        notify( lines );
     }
-
-    /**
-     * Perform the check.
-     *
-     * @param content the content to check
-     * @param line the line number starting at 1
-     */
-    protected abstract void check( String content, int line );
 }
@@ -0,0 +1,78 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle.checks;
+
+import java.util.ArrayList;
+import java.util.List;
+import cppast.AbstractVisitor;
+import cppast.AstTranslationUnit;
+
+/**
+ * Gathers the names declared in abstract syntax trees on behalf of all the declaration observers.
+ * <p>
+ * Each abstract syntax tree is walked once whatever the number of observers, which are then notified in turn in their
+ * order of registration.
+ *
+ * @author Mathieu Champlon
+ */
+public final class DeclarationScanner extends AbstractVisitor
+{
+    private final List<DeclarationObserver> observers = new ArrayList<DeclarationObserver>();
+    private final Declarations declarations = new Declarations();
+
+    /**
+     * Register a declaration observer.
+     *
+     * @param observer the observer
+     */
+    public void register( final DeclarationObserver observer )
+    {
+        if( observer == null )
+            throw new IllegalArgumentException( "argument 'observer' is null" );
+        observers.add( observer );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object visit( final AstTranslationUnit node, final Object data )
+    {
+        declarations.scan( node );
+        try
+        {
+            for( final DeclarationObserver observer : observers )
+                observer.notify( declarations );
+        }
+        finally
+        {
+            declarations.clear();
+        }
+        return data;
+    }
+}
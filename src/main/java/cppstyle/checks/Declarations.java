@@ -0,0 +1,302 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle.checks;
+
+import java.util.ArrayList;
+import java.util.List;
+import cppast.AbstractVisitor;
+import cppast.AstClassDefinition;
+import cppast.AstDeclaration;
+import cppast.AstFunctionBody;
+import cppast.AstFunctionDeclaration;
+import cppast.AstFunctionDefinition;
+import cppast.AstFunctionName;
+import cppast.AstMemberDeclaration;
+import cppast.AstNamespaceDefinition;
+import cppast.AstParameterName;
+import cppast.ParserConstants;
+import cppast.SimpleNode;
+import cppast.Token;
+
+/**
+ * Gathers the names declared in an abstract syntax tree in a single walk.
+ * <p>
+ * The walk carries the declaration context, for instance whether it is within a function signature, a function body or
+ * a member declaration, in order to tell apart the kinds of names. The names of a kind are listed by context first,
+ * then in the tree order: for instance the variables of a function body come before the variables of the functions of
+ * a class defined within this body.
+ *
+ * @author Mathieu Champlon
+ */
+public final class Declarations
+{
+    private static final int NONE = -1;
+    private final Names functions = new Names();
+    private final Names parameters = new Names();
+    private final Names variables = new Names();
+    private final Names members = new Names();
+    private final List<Token> types = new ArrayList<Token>();
+    private final List<Token> namespaces = new ArrayList<Token>();
+    private final Walker walker = new Walker();
+
+    /**
+     * Lists names of a kind grouped by context.
+     *
+     * @author Mathieu Champlon
+     */
+    private static final class Names
+    {
+        private final List<List<Token>> groups = new ArrayList<List<Token>>();
+        private final List<Token> names = new ArrayList<Token>();
+
+        public int open( final int group )
+        {
+            if( group != NONE )
+                return group;
+            groups.add( new ArrayList<Token>() );
+            return groups.size() - 1;
+        }
+
+        public void add( final int group, final Token name )
+        {
+            if( group != NONE )
+                groups.get( group ).add( name );
+        }
+
+        public void close()
+        {
+            for( final List<Token> group : groups )
+                names.addAll( group );
+            groups.clear();
+        }
+
+        public void clear()
+        {
+            groups.clear();
+            names.clear();
+        }
+
+        public List<Token> get()
+        {
+            return names;
+        }
+    }
+
+    /**
+     * Walks the tree keeping track of the declaration context.
+     * <p>
+     * The context holds for each kind of names the current group, if any.
+     *
+     * @author Mathieu Champlon
+     */
+    private final class Walker extends AbstractVisitor
+    {
+        private int function = NONE;
+        private int parameter = NONE;
+        private int variable = NONE;
+        private int member = NONE;
+
+        private Object walk( final SimpleNode node, final Object data, final int function, final int parameter,
+                final int variable, final int member )
+        {
+            final int outerFunction = this.function;
+            final int outerParameter = this.parameter;
+            final int outerVariable = this.variable;
+            final int outerMember = this.member;
+            this.function = function;
+            this.parameter = parameter;
+            this.variable = variable;
+            this.member = member;
+            try
+            {
+                return node.accept( this, data );
+            }
+            finally
+            {
+                this.function = outerFunction;
+                this.parameter = outerParameter;
+                this.variable = outerVariable;
+                this.member = outerMember;
+            }
+        }
+
+        public Object visit( final AstFunctionDeclaration node, final Object data )
+        {
+            return walk( node, data, functions.open( function ), parameters.open( parameter ), NONE, member );
+        }
+
+        public Object visit( final AstFunctionDefinition node, final Object data )
+        {
+            return walk( node, data, functions.open( function ), parameters.open( parameter ), NONE, member );
+        }
+
+        public Object visit( final AstFunctionBody node, final Object data )
+        {
+            return walk( node, data, NONE, NONE, variables.open( variable ), member );
+        }
+
+        public Object visit( final AstFunctionName node, final Object data )
+        {
+            if( function != NONE && !node.contains( ParserConstants.OPERATOR ) )
+                functions.add( function, node.getLastToken() );
+            return walk( node, data, NONE, parameter, variable, member );
+        }
+
+        public Object visit( final AstParameterName node, final Object data )
+        {
+            final Token name = node.getFirstToken();
+            parameters.add( parameter, name );
+            variables.add( variable, name );
+            members.add( member, name );
+            return walk( node, data, function, NONE, NONE, NONE );
+        }
+
+        public Object visit( final AstDeclaration node, final Object data )
+        {
+            if( variable != NONE
+                    && (node.contains( ParserConstants.TYPEDEF ) || (node.contains( ParserConstants.CONST ) && node
+                            .contains( ParserConstants.STATIC ))) )
+                return walk( node, data, function, parameter, NONE, member );
+            return node.accept( this, data );
+        }
+
+        public Object visit( final AstMemberDeclaration node, final Object data )
+        {
+            if( member == NONE && !node.contains( ParserConstants.TYPEDEF ) && !node.contains( ParserConstants.STATIC ) )
+                return walk( node, data, function, parameter, variable, members.open( member ) );
+            return node.accept( this, data );
+        }
+
+        public Object visit( final AstClassDefinition node, final Object data )
+        {
+            final Token identifier = node.getFirstToken().next;
+            if( identifier.kind != ParserConstants.LCURLYBRACE )
+                types.add( identifier );
+            return walk( node, data, function, parameter, variable, NONE );
+        }
+
+        public Object visit( final AstNamespaceDefinition node, final Object data )
+        {
+            final Token identifier = node.getFirstToken().next;
+            if( identifier.kind != ParserConstants.LCURLYBRACE )
+                namespaces.add( identifier );
+            return node.accept( this, data );
+        }
+    }
+
+    /**
+     * Walk an abstract syntax tree.
+     *
+     * @param root the root node of the tree
+     */
+    public void scan( final SimpleNode root )
+    {
+        if( root == null )
+            throw new IllegalArgumentException( "argument 'root' is null" );
+        clear();
+        root.jjtAccept( walker, null );
+        functions.close();
+        parameters.close();
+        variables.close();
+        members.close();
+    }
+
+    /**
+     * Forget the names gathered, thus releasing the tree.
+     */
+    public void clear()
+    {
+        functions.clear();
+        parameters.clear();
+        variables.clear();
+        members.clear();
+        types.clear();
+        namespaces.clear();
+    }
+
+    /**
+     * Retrieve the names of the functions declared or defined, operators excluded.
+     *
+     * @return the function name tokens
+     */
+    public List<Token> getFunctions()
+    {
+        return functions.get();
+    }
+
+    /**
+     * Retrieve the names of the parameters of the functions declared or defined.
+     *
+     * @return the parameter name tokens
+     */
+    public List<Token> getParameters()
+    {
+        return parameters.get();
+    }
+
+    /**
+     * Retrieve the names of the variables declared within function bodies, typedefs and static constants excluded.
+     *
+     * @return the variable name tokens
+     */
+    public List<Token> getVariables()
+    {
+        return variables.get();
+    }
+
+    /**
+     * Retrieve the names of the class members, typedefs and static members excluded.
+     *
+     * @return the member name tokens
+     */
+    public List<Token> getMembers()
+    {
+        return members.get();
+    }
+
+    /**
+     * Retrieve the names of the classes defined.
+     *
+     * @return the type name tokens
+     */
+    public List<Token> getTypes()
+    {
+        return types;
+    }
+
+    /**
+     * Retrieve the names of the namespaces defined.
+     *
+     * @return the namespace name tokens
+     */
+    public List<Token> getNamespaces()
+    {
+        return namespaces;
+    }
+}
@@ -35,7 +35,7 @@ import java.util.Properties;
  *
  * @author Mathieu Champlon
  */
-public final class EndOfLineCheck implements FileContentObserver
+public final class EndOfLineCheck extends AbstractLineCheck
 {
     private final CheckListener listener;
     private final String type;
@@ -71,43 +71,38 @@ public final class EndOfLineCheck implements FileContentObserver
     /**
      * {@inheritDoc}
      */
-    public void notify( final String content )
+    public void notify( final Lines lines )
     {
+        final String expected = getType( lines );
         int number = 0;
-        for( final String line : split( content ) )
+        for( int line = 0; line < lines.getCount() - 1; ++line )
         {
-            for( int index = next( line ); index != -1; index = next( line, index + 1 ) )
+            final String terminator = lines.getTerminator( line );
+            if( terminator.equals( expected ) )
+                ++number;
+            else if( terminator.equals( "\r\n" ) && expected.equals( "\r" ) )
+            {
+                ++number;
+                listener.fail( "invalid end of line", ++number );
+            }
+            else if( terminator.equals( "\r\n" ) && expected.equals( "\n" ) )
+            {
+                listener.fail( "invalid end of line", ++number );
+                ++number;
+            }
+            else
                 listener.fail( "invalid end of line", ++number );
-            ++number;
         }
     }
 
-    private String[] split( final String content )
+    private String getType( final Lines lines )
     {
         if( type != null )
-            return content.split( type );
-        return content.split( detect( content ) );
-    }
-
-    private String detect( final String content )
-    {
-        if( content.indexOf( "\r\n" ) != -1 )
+            return type;
+        if( lines.contains( "\r\n" ) )
             return "\r\n";
-        if( content.indexOf( "\r" ) != -1 )
+        if( lines.contains( "\r" ) )
             return "\r";
         return "\n";
     }
-
-    private int next( final String line )
-    {
-        return next( line, 0 );
-    }
-
-    private int next( final String line, final int start )
-    {
-        final int index = line.indexOf( '\r', start );
-        if( index != -1 )
-            return index;
-        return line.indexOf( '\n', start );
-    }
 }
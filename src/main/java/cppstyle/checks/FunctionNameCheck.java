@@ -29,20 +29,14 @@
 package cppstyle.checks;
 
 import java.util.Properties;
-import cppast.AbstractVisitor;
-import cppast.AstFunctionBody;
-import cppast.AstFunctionDeclaration;
-import cppast.AstFunctionDefinition;
-import cppast.AstFunctionName;
-import cppast.ParserConstants;
-import cppast.SimpleNode;
+import cppast.Token;
 
 /**
  * Checks for the validity of function names.
  *
  * @author Mathieu Champlon
  */
-public final class FunctionNameCheck extends AbstractVisitor
+public final class FunctionNameCheck extends AbstractDeclarationCheck
 {
     private final NameCheck check;
 
@@ -60,36 +54,9 @@ public final class FunctionNameCheck extends AbstractVisitor
     /**
      * {@inheritDoc}
      */
-    public Object visit( final AstFunctionDeclaration node, final Object data )
+    public void notify( final Declarations declarations )
     {
-        check( node );
-        return super.visit( node, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstFunctionDefinition node, final Object data )
-    {
-        check( node );
-        return super.visit( node, data );
-    }
-
-    private void check( final SimpleNode node )
-    {
-        node.accept( new AbstractVisitor()
-        {
-            public Object visit( final AstFunctionBody subnode, final Object data )
-            {
-                return data;
-            }
-
-            public Object visit( final AstFunctionName subnode, final Object data )
-            {
-                if( !subnode.contains( ParserConstants.OPERATOR ) )
-                    check.verify( subnode.getLastToken() );
-                return data;
-            }
-        }, null );
+        for( final Token name : declarations.getFunctions() )
+            check.verify( name );
     }
 }
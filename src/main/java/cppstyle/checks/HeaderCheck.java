@@ -39,7 +39,7 @@ import cpptools.FileReader;
  *
  * @author Mathieu Champlon
  */
-public final class HeaderCheck implements FileContentObserver
+public final class HeaderCheck extends AbstractLineCheck
 {
     private final CheckListener listener;
     private final String[] expected;
@@ -117,9 +117,9 @@ public final class HeaderCheck implements FileContentObserver
     /**
      * {@inheritDoc}
      */
-    public void notify( final String content )
+    public void notify( final Lines lines )
     {
-        notify( compare( split( content ) ) );
+        notify( compare( lines ) );
     }
 
     private void notify( final List<Interval> intervals )
@@ -128,18 +128,28 @@ public final class HeaderCheck implements FileContentObserver
             interval.notify( listener );
     }
 
-    private List<Interval> compare( final String[] actual )
+    private List<Interval> compare( final Lines lines )
     {
         final List<Interval> intervals = new ArrayList<Interval>();
+        final int count = count( lines );
         for( int line = 0; line < expected.length; ++line )
-            if( !matches( actual, line ) && !merge( intervals, line + 1 ) )
+            if( !matches( lines, count, line ) && !merge( intervals, line + 1 ) )
                 intervals.add( new Interval( line + 1 ) );
         return intervals;
     }
 
-    private boolean matches( final String[] actual, final int line )
+    private int count( final Lines lines )
     {
-        return line < actual.length && (ignoredLines.contains( line + 1 ) || actual[line].equals( expected[line] ));
+        int count = lines.getCount();
+        if( count > 1 )
+            while( count > 0 && lines.isEmpty( count - 1 ) )
+                --count;
+        return count;
+    }
+
+    private boolean matches( final Lines lines, final int count, final int line )
+    {
+        return line < count && (ignoredLines.contains( line + 1 ) || lines.matches( line, expected[line] ));
     }
 
     private boolean merge( final List<Interval> intervals, final int line )
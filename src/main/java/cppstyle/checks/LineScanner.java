@@ -28,43 +28,41 @@
 
 package cppstyle.checks;
 
-import java.io.IOException;
-import cpptools.FileObserver;
-import cpptools.FileReader;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Provides a file content observer with the content of files.
+ * Scans the content of files into lines shared by all the line observers.
+ * <p>
+ * Each content is scanned once whatever the number of observers, which are then notified in turn in their order of
+ * registration.
  *
  * @author Mathieu Champlon
  */
-public final class FileContentProvider implements FileObserver
+public final class LineScanner implements FileContentObserver
 {
-    private final FileContentObserver observer;
+    private final List<LineObserver> observers = new ArrayList<LineObserver>();
+    private final Lines lines = new Lines();
 
     /**
-     * Create a file content provider.
+     * Register a line observer.
      *
-     * @param observer the file content observer
+     * @param observer the observer
      */
-    public FileContentProvider( final FileContentObserver observer )
+    public void register( final LineObserver observer )
     {
         if( observer == null )
-            throw new IllegalArgumentException( "parameter 'observer' is null" );
-        this.observer = observer;
+            throw new IllegalArgumentException( "argument 'observer' is null" );
+        observers.add( observer );
     }
 
     /**
      * {@inheritDoc}
      */
-    public void changed( final String filename )
+    public void notify( final String content )
     {
-        try
-        {
-            observer.notify( FileReader.read( filename ) );
-        }
-        catch( final IOException e )
-        {
-            throw new RuntimeException( e );
-        }
+        lines.scan( content );
+        for( final LineObserver observer : observers )
+            observer.notify( lines );
     }
 }
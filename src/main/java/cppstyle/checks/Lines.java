@@ -0,0 +1,238 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle.checks;
+
+/**
+ * Splits the content of a file into lines in a single pass.
+ * <p>
+ * Lines are separated by either '\r\n', '\r' or '\n' and described by their boundaries within the content, their first
+ * tab character and their terminator, instead of being extracted. The storage is reused from one content to the next.
+ *
+ * @author Mathieu Champlon
+ */
+public final class Lines
+{
+    private static final String NONE = "";
+    private static final String CR = "\r";
+    private static final String LF = "\n";
+    private static final String CRLF = "\r\n";
+    private static final int INITIAL_CAPACITY = 256;
+
+    private String content = NONE;
+    private int count;
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] ends = new int[INITIAL_CAPACITY];
+    private int[] tabs = new int[INITIAL_CAPACITY];
+    private String[] terminators = new String[INITIAL_CAPACITY];
+
+    /**
+     * Scan a content.
+     *
+     * @param content the content
+     */
+    public void scan( final String content )
+    {
+        if( content == null )
+            throw new IllegalArgumentException( "argument 'content' is null" );
+        this.content = content;
+        count = 0;
+        final int length = content.length();
+        int start = 0;
+        int tab = -1;
+        for( int index = 0; index < length; ++index )
+        {
+            final char c = content.charAt( index );
+            if( c == '\t' && tab == -1 )
+                tab = index;
+            else if( c == '\n' )
+            {
+                add( start, index, tab, LF );
+                start = index + 1;
+                tab = -1;
+            }
+            else if( c == '\r' )
+            {
+                final boolean pair = index + 1 < length && content.charAt( index + 1 ) == '\n';
+                add( start, index, tab, pair ? CRLF : CR );
+                if( pair )
+                    ++index;
+                start = index + 1;
+                tab = -1;
+            }
+        }
+        add( start, length, tab, NONE );
+    }
+
+    private void add( final int start, final int end, final int tab, final String terminator )
+    {
+        if( count == starts.length )
+            grow();
+        starts[count] = start;
+        ends[count] = end;
+        tabs[count] = tab;
+        terminators[count] = terminator;
+        ++count;
+    }
+
+    private void grow()
+    {
+        final int capacity = 2 * count;
+        starts = copy( starts, capacity );
+        ends = copy( ends, capacity );
+        tabs = copy( tabs, capacity );
+        final String[] strings = new String[capacity];
+        System.arraycopy( terminators, 0, strings, 0, count );
+        terminators = strings;
+    }
+
+    private int[] copy( final int[] values, final int capacity )
+    {
+        final int[] result = new int[capacity];
+        System.arraycopy( values, 0, result, 0, count );
+        return result;
+    }
+
+    /**
+     * Retrieve the scanned content.
+     *
+     * @return the content
+     */
+    public String getContent()
+    {
+        return content;
+    }
+
+    /**
+     * Retrieve the number of lines.
+     * <p>
+     * The last line is whatever follows the last terminator, thus it is empty if the content ends with a terminator.
+     *
+     * @return the number of lines, at least 1
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Retrieve the index of the first character of a line within the content.
+     *
+     * @param line the line index starting at 0
+     * @return the start index
+     */
+    public int getStart( final int line )
+    {
+        return starts[line];
+    }
+
+    /**
+     * Retrieve the index following the last character of a line within the content, terminator excluded.
+     *
+     * @param line the line index starting at 0
+     * @return the end index
+     */
+    public int getEnd( final int line )
+    {
+        return ends[line];
+    }
+
+    /**
+     * Retrieve the index of the first tab character of a line within the content.
+     *
+     * @param line the line index starting at 0
+     * @return the tab index or -1 if none
+     */
+    public int getTab( final int line )
+    {
+        return tabs[line];
+    }
+
+    /**
+     * Retrieve the terminator of a line.
+     *
+     * @param line the line index starting at 0
+     * @return either "\r\n", "\r", "\n" or "" for the last line
+     */
+    public String getTerminator( final int line )
+    {
+        return terminators[line];
+    }
+
+    /**
+     * Test whether a line is empty.
+     *
+     * @param line the line index starting at 0
+     * @return whether the line is empty or not
+     */
+    public boolean isEmpty( final int line )
+    {
+        return starts[line] == ends[line];
+    }
+
+    /**
+     * Test whether a line ends with a space or a tab character.
+     *
+     * @param line the line index starting at 0
+     * @return whether the line ends with whitespace or not
+     */
+    public boolean hasTrailingWhitespace( final int line )
+    {
+        if( isEmpty( line ) )
+            return false;
+        final char c = content.charAt( ends[line] - 1 );
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * Test whether a line is equal to a given string.
+     *
+     * @param line the line index starting at 0
+     * @param value the string
+     * @return whether the line matches the string or not
+     */
+    public boolean matches( final int line, final String value )
+    {
+        final int length = ends[line] - starts[line];
+        return length == value.length() && content.regionMatches( starts[line], value, 0, length );
+    }
+
+    /**
+     * Test whether the content contains a given line terminator.
+     *
+     * @param terminator either "\r\n", "\r" or "\n"
+     * @return whether the terminator terminates at least one line or not
+     */
+    public boolean contains( final String terminator )
+    {
+        for( int line = 0; line < count - 1; ++line )
+            if( terminators[line].equals( terminator ) )
+                return true;
+        return false;
+    }
+}
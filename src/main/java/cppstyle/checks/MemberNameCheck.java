@@ -29,19 +29,14 @@
 package cppstyle.checks;
 
 import java.util.Properties;
-import cppast.AbstractVisitor;
-import cppast.AstClassDefinition;
-import cppast.AstMemberDeclaration;
-import cppast.AstParameterName;
-import cppast.ParserConstants;
-import cppast.SimpleNode;
+import cppast.Token;
 
 /**
  * Checks for the validity of member (e.g. field) names.
  *
  * @author Mathieu Champlon
  */
-public final class MemberNameCheck extends AbstractVisitor
+public final class MemberNameCheck extends AbstractDeclarationCheck
 {
     private final NameCheck check;
 
@@ -59,27 +54,9 @@ public final class MemberNameCheck extends AbstractVisitor
     /**
      * {@inheritDoc}
      */
-    public Object visit( final AstMemberDeclaration node, final Object data )
+    public void notify( final Declarations declarations )
     {
-        if( !node.contains( ParserConstants.TYPEDEF ) && !node.contains( ParserConstants.STATIC ) )
-            check( node );
-        return super.visit( node, data );
-    }
-
-    private void check( final SimpleNode node )
-    {
-        node.accept( new AbstractVisitor()
-        {
-            public Object visit( final AstClassDefinition subnode, final Object data )
-            {
-                return data;
-            }
-
-            public Object visit( final AstParameterName subnode, final Object data )
-            {
-                check.verify( subnode.getFirstToken() );
-                return data;
-            }
-        }, null );
+        for( final Token name : declarations.getMembers() )
+            check.verify( name );
     }
 }
@@ -28,19 +28,26 @@
 
 package cppstyle.checks;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.regex.Pattern;
 import cppast.Token;
 
 /**
  * Provides a means to check the name of a given token against a regular expression.
+ * <p>
+ * The regular expression is compiled once and the verdicts for the most recently checked names are remembered.
  *
  * @author Mathieu Champlon
  */
 class NameCheck
 {
+    private static final int CACHE_SIZE = 1024;
     private final CheckListener listener;
-    private final String format;
+    private final Pattern format;
     private final String type;
+    private final Map<String, Boolean> verdicts;
 
     /**
      * Create a name check.
@@ -50,16 +57,39 @@ class NameCheck
      * @param type the name of the check
      */
     public NameCheck( final CheckListener listener, final Properties properties, final String type )
+    {
+        this( listener, properties, type, CACHE_SIZE );
+    }
+
+    /**
+     * Create a name check remembering a given number of verdicts.
+     *
+     * @param listener the check listener
+     * @param properties the properties
+     * @param type the name of the check
+     * @param limit the maximum number of verdicts remembered
+     */
+    NameCheck( final CheckListener listener, final Properties properties, final String type, final int limit )
     {
         if( listener == null )
             throw new IllegalArgumentException( "argument 'listener' is null" );
         if( type == null )
             throw new IllegalArgumentException( "argument 'type' is null" );
         this.listener = listener;
-        this.format = properties.getProperty( "format" );
-        if( format == null )
+        final String expression = properties.getProperty( "format" );
+        if( expression == null )
             throw new IllegalArgumentException( "missing property 'format'" );
+        this.format = Pattern.compile( expression );
         this.type = type;
+        this.verdicts = new LinkedHashMap<String, Boolean>( limit, 0.75f, true )
+        {
+            private static final long serialVersionUID = 1L;
+
+            protected boolean removeEldestEntry( final Map.Entry<String, Boolean> eldest )
+            {
+                return size() > limit;
+            }
+        };
     }
 
     /**
@@ -69,7 +99,29 @@ class NameCheck
      */
     public void verify( final Token token )
     {
-        if( !token.image.matches( format ) )
+        if( !matches( token.image ) )
             listener.fail( "invalid " + type + " name", token.beginLine );
     }
+
+    private boolean matches( final String name )
+    {
+        Boolean verdict = verdicts.get( name );
+        if( verdict == null )
+        {
+            verdict = Boolean.valueOf( format.matcher( name ).matches() );
+            verdicts.put( name, verdict );
+        }
+        return verdict.booleanValue();
+    }
+
+    /**
+     * Tell whether the verdict for a name is remembered.
+     *
+     * @param name the name
+     * @return whether the name would be verified without being matched again
+     */
+    boolean isRemembered( final String name )
+    {
+        return verdicts.containsKey( name );
+    }
 }
@@ -29,9 +29,6 @@
 package cppstyle.checks;
 
 import java.util.Properties;
-import cppast.AbstractVisitor;
-import cppast.AstNamespaceDefinition;
-import cppast.ParserConstants;
 import cppast.Token;
 
 /**
@@ -39,7 +36,7 @@ import cppast.Token;
  *
  * @author Mathieu Champlon
  */
-public final class NamespaceNameCheck extends AbstractVisitor
+public final class NamespaceNameCheck extends AbstractDeclarationCheck
 {
     private final NameCheck check;
 
@@ -57,11 +54,9 @@ public final class NamespaceNameCheck extends AbstractVisitor
     /**
      * {@inheritDoc}
      */
-    public Object visit( final AstNamespaceDefinition node, final Object data )
+    public void notify( final Declarations declarations )
     {
-        final Token identifier = node.getFirstToken().next;
-        if( identifier.kind != ParserConstants.LCURLYBRACE )
-            check.verify( identifier );
-        return super.visit( node, data );
+        for( final Token name : declarations.getNamespaces() )
+            check.verify( name );
     }
 }
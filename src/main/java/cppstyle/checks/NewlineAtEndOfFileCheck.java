@@ -35,7 +35,7 @@ import java.util.Properties;
  *
  * @author Mathieu Champlon
  */
-public final class NewlineAtEndOfFileCheck implements FileContentObserver
+public final class NewlineAtEndOfFileCheck extends AbstractLineCheck
 {
     private final CheckListener listener;
 
@@ -55,9 +55,10 @@ public final class NewlineAtEndOfFileCheck implements FileContentObserver
     /**
      * {@inheritDoc}
      */
-    public void notify( final String content )
+    public void notify( final Lines lines )
     {
-        if( !content.endsWith( "\r\n" ) && !content.endsWith( "\r" ) && !content.endsWith( "\n" ) )
+        final int last = lines.getCount() - 1;
+        if( last == 0 || !lines.isEmpty( last ) )
             listener.fail( "missing new line at end of file" );
     }
 }
@@ -29,19 +29,14 @@
 package cppstyle.checks;
 
 import java.util.Properties;
-import cppast.AbstractVisitor;
-import cppast.AstFunctionBody;
-import cppast.AstFunctionDeclaration;
-import cppast.AstFunctionDefinition;
-import cppast.AstParameterName;
-import cppast.SimpleNode;
+import cppast.Token;
 
 /**
  * Checks for the validity of parameter names.
  *
  * @author Mathieu Champlon
  */
-public final class ParameterNameCheck extends AbstractVisitor
+public final class ParameterNameCheck extends AbstractDeclarationCheck
 {
     private final NameCheck check;
 
@@ -59,35 +54,9 @@ public final class ParameterNameCheck extends AbstractVisitor
     /**
      * {@inheritDoc}
      */
-    public Object visit( final AstFunctionDeclaration node, final Object data )
+    public void notify( final Declarations declarations )
     {
-        check( node );
-        return super.visit( node, data );
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    public Object visit( final AstFunctionDefinition node, final Object data )
-    {
-        check( node );
-        return super.visit( node, data );
-    }
-
-    private void check( final SimpleNode node )
-    {
-        node.accept( new AbstractVisitor()
-        {
-            public Object visit( final AstFunctionBody subnode, final Object data )
-            {
-                return data;
-            }
-
-            public Object visit( final AstParameterName subnode, final Object data )
-            {
-                check.verify( subnode.getFirstToken() );
-                return data;
-            }
-        }, null );
+        for( final Token name : declarations.getParameters() )
+            check.verify( name );
     }
 }
@@ -55,9 +55,10 @@ public final class TabCharacterCheck extends AbstractLineCheck
     /**
      * {@inheritDoc}
      */
-    protected void check( final String content, final int line )
+    public void notify( final Lines lines )
     {
-        if( content.contains( "\t" ) )
-            listener.fail( "tab character", line );
+        for( int line = 0; line < lines.getCount(); ++line )
+            if( lines.getTab( line ) != -1 )
+                listener.fail( "tab character", line + 1 );
     }
 }
@@ -29,9 +29,6 @@
 package cppstyle.checks;
 
 import java.util.Properties;
-import cppast.AbstractVisitor;
-import cppast.AstClassDefinition;
-import cppast.ParserConstants;
 import cppast.Token;
 
 /**
@@ -39,7 +36,7 @@ import cppast.Token;
  *
  * @author Mathieu Champlon
  */
-public final class TypeNameCheck extends AbstractVisitor
+public final class TypeNameCheck extends AbstractDeclarationCheck
 {
     private final NameCheck check;
 
@@ -57,11 +54,9 @@ public final class TypeNameCheck extends AbstractVisitor
     /**
      * {@inheritDoc}
      */
-    public Object visit( final AstClassDefinition node, final Object data )
+    public void notify( final Declarations declarations )
     {
-        final Token identifier = node.getFirstToken().next;
-        if( identifier.kind != ParserConstants.LCURLYBRACE )
-            check.verify( identifier );
-        return super.visit( node, data );
+        for( final Token name : declarations.getTypes() )
+            check.verify( name );
     }
 }
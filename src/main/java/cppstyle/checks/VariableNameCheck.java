@@ -29,21 +29,14 @@
 package cppstyle.checks;
 
 import java.util.Properties;
-import cppast.AbstractVisitor;
-import cppast.AstDeclaration;
-import cppast.AstFunctionBody;
-import cppast.AstFunctionDeclaration;
-import cppast.AstFunctionDefinition;
-import cppast.AstParameterName;
-import cppast.ParserConstants;
-import cppast.SimpleNode;
+import cppast.Token;
 
 /**
  * Checks for the validity of variable names.
  *
  * @author Mathieu Champlon
  */
-public final class VariableNameCheck extends AbstractVisitor
+public final class VariableNameCheck extends AbstractDeclarationCheck
 {
     private final NameCheck check;
 
@@ -61,39 +54,9 @@ public final class VariableNameCheck extends AbstractVisitor
     /**
      * {@inheritDoc}
      */
-    public Object visit( final AstFunctionBody node, final Object data )
+    public void notify( final Declarations declarations )
     {
-        check( node );
-        return super.visit( node, data );
-    }
-
-    private void check( final SimpleNode node )
-    {
-        node.accept( new AbstractVisitor()
-        {
-            public Object visit( final AstFunctionDeclaration subnode, final Object data )
-            {
-                return data;
-            }
-
-            public Object visit( final AstFunctionDefinition subnode, final Object data )
-            {
-                return data;
-            }
-
-            public Object visit( final AstDeclaration subnode, final Object data )
-            {
-                if( subnode.contains( ParserConstants.TYPEDEF )
-                        || (subnode.contains( ParserConstants.CONST ) && subnode.contains( ParserConstants.STATIC )) )
-                    return data;
-                return super.visit( subnode, data );
-            }
-
-            public Object visit( final AstParameterName subnode, final Object data )
-            {
-                check.verify( subnode.getFirstToken() );
-                return data;
-            }
-        }, null );
+        for( final Token name : declarations.getVariables() )
+            check.verify( name );
     }
 }
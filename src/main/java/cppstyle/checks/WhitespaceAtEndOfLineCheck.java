@@ -55,9 +55,10 @@ public final class WhitespaceAtEndOfLineCheck extends AbstractLineCheck
     /**
      * {@inheritDoc}
      */
-    protected void check( final String content, final int line )
+    public void notify( final Lines lines )
     {
-        if( content.endsWith( " " ) || content.endsWith( "\t" ) )
-            listener.fail( "whitespace at end of line", line );
+        for( int line = 0; line < lines.getCount(); ++line )
+            if( lines.hasTrailingWhitespace( line ) )
+                listener.fail( "whitespace at end of line", line + 1 );
     }
 }
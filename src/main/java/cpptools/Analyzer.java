@@ -28,27 +28,57 @@
 
 package cpptools;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
-import cppast.JavaCharStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import cppast.AstTranslationUnit;
+import cppast.BufferCharStream;
+import cppast.CommentVisitor;
+import cppast.IdentifierPool;
 import cppast.ParseException;
 import cppast.Parser;
 import cppast.ParserTokenManager;
 import cppast.ParserVisitor;
+import cppast.SymbolJournal;
+import cppast.SymbolTable;
 import cppast.Token;
+import cppast.TokenMgrError;
+import cpptools.preprocessor.Definition;
+import cpptools.preprocessor.IncludeHandler;
 import cpptools.preprocessor.PreProcessor;
 import cpptools.preprocessor.TokenProvider;
 
 /**
  * Builds and walks a forest of abstract syntax trees from a set of given files.
+ * <p>
+ * Files can be parsed concurrently, however the abstract syntax trees are always walked one after another in the
+ * files order with the scopes resolved as if the files had been parsed sequentially.
+ * <p>
+ * When a result cache is provided the files with valid cached results are not parsed at all, their results being
+ * replayed instead. In incremental mode the files in the cache are trusted without being read, only the ones listed as
+ * changed being checked.
+ * <p>
+ * When include paths are provided the headers included are parsed once and shared by all the files, each file
+ * getting the scopes and symbols declared by the headers it includes.
+ * <p>
+ * Each file is read only once, its content being shared by the parser and the content observers, if any.
+ * <p>
+ * When requested the comments and new lines are discarded while parsing, unless the visitor reads comments.
  *
  * @author Mathieu Champlon
  */
@@ -76,14 +106,29 @@ public final class Analyzer
             return true;
         }
     };
+    private static final int PENDING_UNITS_PER_THREAD = 2;
+    private final Options options;
     private final ParserVisitor visitor;
     private final FileObserver observer;
+    private final ContentObserver contents;
     private final EventHandler handler;
     private final boolean recursive;
     private final boolean force;
+    private final boolean escapes;
+    private final boolean comments;
+    private final int threads;
+    private final ResultCache cache;
+    private final Includes includes;
     private final List<String> files;
-    private final ParserTokenManager manager;
-    private final Parser parser;
+    private final SymbolTable symbols = new SymbolTable();
+    private final IdentifierPool identifiers = new IdentifierPool();
+    private final ThreadLocal<Context> contexts = new ThreadLocal<Context>()
+    {
+        protected Context initialValue()
+        {
+            return new Context();
+        }
+    };
 
     /**
      * Create an analyzer.
@@ -92,8 +137,26 @@ public final class Analyzer
      * @param visitor the abstract syntax tree visitor
      * @param observer a file observer
      * @param handler an event handler
+     * @throws IOException if the list of changed files cannot be read
      */
     public Analyzer( final Options options, final ParserVisitor visitor, final FileObserver observer, final EventHandler handler )
+            throws IOException
+    {
+        this( options, visitor, observer, handler, null );
+    }
+
+    /**
+     * Create an analyzer reusing the results of unchanged files.
+     *
+     * @param options the options
+     * @param visitor the abstract syntax tree visitor
+     * @param observer a file observer
+     * @param handler an event handler
+     * @param cache the result cache, null if none
+     * @throws IOException if the list of changed files cannot be read
+     */
+    public Analyzer( final Options options, final ParserVisitor visitor, final FileObserver observer,
+            final EventHandler handler, final ResultCache cache ) throws IOException
     {
         if( observer == null )
             throw new IllegalArgumentException( "argument 'observer' is null" );
@@ -101,26 +164,253 @@ public final class Analyzer
             throw new IllegalArgumentException( "argument 'handler' is null" );
         if( visitor == null )
             throw new IllegalArgumentException( "argument 'visitor' is null" );
+        this.options = options;
         this.visitor = visitor;
         this.observer = observer;
+        this.contents = observer instanceof ContentObserver ? (ContentObserver)observer : null;
         this.handler = handler;
         this.recursive = options.hasOption( "r" );
         this.force = options.hasOption( "k" );
-        this.files = sort( resolve( options.getArgList() ) );
-        this.manager = createParserManager( options );
-        this.parser = new Parser( manager );
+        this.escapes = options.hasOption( "e" );
+        this.comments = !options.hasOption( "i" ) || readsComments( visitor );
+        this.threads = getThreads( options );
+        this.cache = cache;
+        this.includes = getIncludes( options );
+        this.files = sort( collect( options ) );
+        contexts.get();
+    }
+
+    private boolean readsComments( final ParserVisitor visitor )
+    {
+        return visitor instanceof CommentVisitor && ((CommentVisitor)visitor).readsComments();
+    }
+
+    /**
+     * Retrieve the number of threads requested with -j.
+     *
+     * @param options the options
+     * @return the number of threads, 1 if none requested
+     */
+    public static int getThreads( final Options options )
+    {
+        if( !options.hasOption( "j" ) )
+            return 1;
+        final List<String> values = options.getOptionPropertyValues( "j" );
+        if( values.size() > 1 )
+            throw new IllegalArgumentException( "invalid multiple -j arguments" );
+        final int value = parseThreads( values.get( 0 ) );
+        if( value < 1 )
+            throw new IllegalArgumentException( "invalid -j argument, must be at least 1" );
+        return value;
+    }
+
+    private static int parseThreads( final String value )
+    {
+        try
+        {
+            return Integer.parseInt( value );
+        }
+        catch( final NumberFormatException e )
+        {
+            throw new IllegalArgumentException( "invalid -j argument, must be at least 1", e );
+        }
     }
 
-    private ParserTokenManager createParserManager( final Options options )
+    private Includes getIncludes( final Options options )
     {
-        final TokenProvider provider = new TokenProviderAdapter( new ParserTokenManager( null ) );
-        final PreProcessor processor = createPreProcessor( options, provider );
-        return new TokenManagerAdapter( processor );
+        if( !options.hasOption( "I" ) )
+            return null;
+        return new Includes( options.getOptionValues( "I" ) );
     }
 
-    private PreProcessor createPreProcessor( final Options options, final TokenProvider provider )
+    /**
+     * Holds a parser and its token management stack.
+     * <p>
+     * A context is bound to a single thread.
+     *
+     * @author Mathieu Champlon
+     */
+    private final class Context
     {
-        final PreProcessor processor = new PreProcessor( provider );
+        private final IdentifierPool pool = new IdentifierPool( identifiers );
+        private final Inclusion inclusion;
+        private final ParserTokenManager manager;
+        private final Parser parser;
+
+        public Context()
+        {
+            this.inclusion = includes == null ? null : new Inclusion();
+            this.manager = new TokenManagerAdapter( createPreProcessor( options, inclusion ) );
+            this.parser = new Parser( manager );
+        }
+
+        public AstTranslationUnit parse( final FileContent content, final SymbolJournal journal )
+                throws ParseException, IOException
+        {
+            if( inclusion != null )
+                inclusion.reset( content.getFilename() );
+            manager.ReInit( new BufferCharStream( content.getBuffer(), escapes, pool ) );
+            parser.ReInit( manager );
+            parser.record( journal );
+            try
+            {
+                return parser.translation_unit();
+            }
+            finally
+            {
+                parser.record( null );
+                if( inclusion != null )
+                    journal.insertOperations( inclusion.getOperations() );
+                release( parser, manager );
+            }
+        }
+
+        public List<String> getHeaders()
+        {
+            if( inclusion == null )
+                return Collections.emptyList();
+            return new ArrayList<String>( inclusion.getHeaders() );
+        }
+    }
+
+    /**
+     * Gathers the headers included by a file.
+     * <p>
+     * The files included by a header are gathered before the header itself, and each header is gathered only once.
+     *
+     * @author Mathieu Champlon
+     */
+    private final class Inclusion implements IncludeHandler
+    {
+        private final Set<String> visited = new HashSet<String>();
+        private final List<String> headers = new ArrayList<String>();
+        private final List<String> operations = new ArrayList<String>();
+        private final HeaderParser parser = new HeaderParser();
+        private File directory;
+
+        public void reset( final String filename ) throws IOException
+        {
+            final File file = new File( filename ).getCanonicalFile();
+            directory = file.getParentFile();
+            visited.clear();
+            visited.add( file.getPath() );
+            headers.clear();
+            operations.clear();
+        }
+
+        public List<String> getHeaders()
+        {
+            return headers;
+        }
+
+        public List<String> getOperations()
+        {
+            return operations;
+        }
+
+        public Map<String, Definition> include( final String name, final boolean system )
+        {
+            final String filename = includes.resolve( name, system, directory );
+            if( filename == null )
+                return null;
+            final Map<String, Definition> definitions = new HashMap<String, Definition>();
+            gather( filename, definitions );
+            return definitions;
+        }
+
+        private void gather( final String filename, final Map<String, Definition> definitions )
+        {
+            if( !visited.add( filename ) )
+                return;
+            headers.add( filename );
+            final Header header = includes.get( filename, new Callable<Header>()
+            {
+                public Header call()
+                {
+                    return parser.parse( filename );
+                }
+            } );
+            for( final String include : header.getIncludes() )
+                gather( include, definitions );
+            definitions.putAll( header.getDefinitions() );
+            operations.addAll( header.getOperations() );
+        }
+    }
+
+    /**
+     * Parses headers on their own, recording the files they include without following them.
+     *
+     * @author Mathieu Champlon
+     */
+    private final class HeaderParser implements IncludeHandler
+    {
+        private final List<String> included = new ArrayList<String>();
+        private final IdentifierPool pool = new IdentifierPool( identifiers );
+        private final PreProcessor processor;
+        private final ParserTokenManager manager;
+        private final Parser parser;
+        private File directory;
+
+        public HeaderParser()
+        {
+            this.processor = createPreProcessor( options, this );
+            this.manager = new TokenManagerAdapter( processor );
+            this.parser = new Parser( manager );
+        }
+
+        public Header parse( final String filename )
+        {
+            directory = new File( filename ).getParentFile();
+            included.clear();
+            final SymbolJournal journal = new SymbolJournal();
+            try
+            {
+                manager.ReInit( new BufferCharStream( new File( filename ), escapes, pool ) );
+                parser.ReInit( manager );
+                parser.record( journal );
+                parser.translation_unit();
+            }
+            catch( final IOException exception )
+            {
+                journal.clear();
+            }
+            catch( final ParseException exception )
+            {
+                journal.closeScopes();
+            }
+            catch( final TokenMgrError error )
+            {
+                journal.closeScopes();
+            }
+            finally
+            {
+                parser.record( null );
+            }
+            final Header header = new Header( journal.getOperations(), processor.getDefinitions(), included );
+            release( parser, manager );
+            return header;
+        }
+
+        public Map<String, Definition> include( final String name, final boolean system )
+        {
+            final String filename = includes.resolve( name, system, directory );
+            if( filename != null )
+                included.add( filename );
+            return null;
+        }
+    }
+
+    private static void release( final Parser parser, final ParserTokenManager manager )
+    {
+        parser.release();
+        manager.ReInit( null );
+    }
+
+    private PreProcessor createPreProcessor( final Options options, final IncludeHandler handler )
+    {
+        final TokenProvider provider = new TokenProviderAdapter( new ParserTokenManager( null ), comments );
+        final PreProcessor processor = new PreProcessor( provider, options.hasOption( "s" ), options.hasOption( "E" ),
+                handler );
         final List<String> defineNames = options.getOptionProperties( "D" );
         final List<String> defineValues = options.getOptionPropertyValues( "D" );
         for( int i = 0; i < defineNames.size(); ++i )
@@ -132,6 +422,44 @@ public final class Analyzer
         return processor;
     }
 
+    private List<String> collect( final Options options ) throws IOException
+    {
+        if( !options.hasOption( "u" ) )
+            return resolve( options.getArgList() );
+        if( cache == null )
+            throw new IllegalArgumentException( "invalid -u argument without result cache" );
+        final List<String> values = options.getOptionPropertyValues( "u" );
+        if( values.size() > 1 )
+            throw new IllegalArgumentException( "invalid multiple -u arguments" );
+        return update( new ChangeList( values.get( 0 ) ), options.getArgList() );
+    }
+
+    private List<String> update( final ChangeList changes, final List<String> inputs )
+    {
+        final Map<String, String> known = new HashMap<String, String>();
+        for( final String filename : cache.getFiles() )
+            known.put( ChangeList.normalize( filename ), filename );
+        final List<String> result = new ArrayList<String>();
+        for( final String path : resolve( inputs ) )
+        {
+            final String filename = known.get( ChangeList.normalize( path ) );
+            if( changes.isDeleted( path ) )
+                continue;
+            if( filename == null )
+            {
+                if( changes.isChanged( path ) )
+                    result.add( path );
+            }
+            else
+            {
+                if( !changes.isChanged( filename ) )
+                    cache.assumeUnchanged( filename );
+                result.add( filename );
+            }
+        }
+        return result;
+    }
+
     private List<String> resolve( final List<String> inputs )
     {
         final List<String> result = new ArrayList<String>();
@@ -185,21 +513,139 @@ public final class Analyzer
 
     /**
      * Run the analysis.
+     * <p>
+     * The identifiers read are forgotten once the analysis is over.
      */
     public void run()
     {
         handler.started();
-        final int parsed = process( visitor );
-        handler.finished( parsed, files.size() );
+        try
+        {
+            final int parsed = process( visitor );
+            handler.finished( parsed, files.size() );
+        }
+        finally
+        {
+            contexts.remove();
+            identifiers.clear();
+        }
+    }
+
+    /**
+     * Holds the parsing of a file.
+     * <p>
+     * The abstract syntax tree and the file content are handed over only once so that they can be collected as soon as
+     * they have been processed.
+     *
+     * @author Mathieu Champlon
+     */
+    private final class Unit implements Runnable
+    {
+        private final String filename;
+        private final SymbolJournal journal;
+        private volatile FutureTask<AstTranslationUnit> task;
+        private volatile FileContent content;
+        private volatile List<String> headers = Collections.emptyList();
+
+        public Unit( final String filename, final SymbolJournal journal )
+        {
+            this.task = new FutureTask<AstTranslationUnit>( new Callable<AstTranslationUnit>()
+            {
+                public AstTranslationUnit call() throws ParseException, IOException
+                {
+                    content = FileContent.read( filename );
+                    final Context context = contexts.get();
+                    try
+                    {
+                        return context.parse( content, journal );
+                    }
+                    finally
+                    {
+                        headers = context.getHeaders();
+                    }
+                }
+            } );
+            this.filename = filename;
+            this.journal = journal;
+        }
+
+        public void run()
+        {
+            final FutureTask<AstTranslationUnit> current = task;
+            if( current != null )
+                current.run();
+        }
+
+        public boolean replay()
+        {
+            if( !cache.replay( filename, journal ) )
+                return false;
+            journal.replay( symbols );
+            return true;
+        }
+
+        public void store( final boolean parsed )
+        {
+            cache.store( filename, headers, journal, parsed );
+        }
+
+        public AstTranslationUnit retrieve() throws Throwable
+        {
+            final FutureTask<AstTranslationUnit> current = task;
+            task = null;
+            current.run();
+            try
+            {
+                return current.get();
+            }
+            catch( final ExecutionException exception )
+            {
+                throw exception.getCause();
+            }
+            finally
+            {
+                journal.replay( symbols );
+                journal.unbind();
+                provide( contents );
+            }
+        }
+
+        private void provide( final ContentObserver observer )
+        {
+            final FileContent current = content;
+            content = null;
+            if( observer != null && current != null )
+                observer.notify( current );
+        }
     }
 
     private int process( final ParserVisitor visitor )
     {
+        if( threads == 1 )
+            return process( visitor, (ExecutorService)null );
+        final ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            return process( visitor, executor );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private int process( final ParserVisitor visitor, final ExecutorService executor )
+    {
+        final LinkedList<Unit> units = new LinkedList<Unit>();
+        final int pending = executor == null ? 0 : threads * PENDING_UNITS_PER_THREAD;
+        int submitted = 0;
         int parsed = 0;
         for( final String filename : files )
         {
             observer.changed( filename );
-            if( process( visitor, filename ) )
+            while( submitted < files.size() && units.size() <= pending )
+                units.add( submit( executor, files.get( submitted++ ) ) );
+            if( process( visitor, filename, units.removeFirst() ) )
                 ++parsed;
             else if( !force )
                 return parsed;
@@ -207,11 +653,35 @@ public final class Analyzer
         return parsed;
     }
 
-    private boolean process( final ParserVisitor visitor, final String filename )
+    private Unit submit( final ExecutorService executor, final String filename )
+    {
+        final Unit unit = new Unit( filename, new SymbolJournal() );
+        if( cache != null && cache.anticipate( filename ) )
+            return unit;
+        if( executor == null )
+            unit.run();
+        else
+            executor.execute( unit );
+        return unit;
+    }
+
+    private boolean process( final ParserVisitor visitor, final String filename, final Unit unit )
+    {
+        if( cache == null )
+            return parse( visitor, filename, unit );
+        if( unit.replay() )
+            return true;
+        cache.record();
+        final boolean parsed = parse( visitor, filename, unit );
+        unit.store( parsed );
+        return parsed;
+    }
+
+    private boolean parse( final ParserVisitor visitor, final String filename, final Unit unit )
     {
         try
         {
-            parse( visitor, filename );
+            unit.retrieve().jjtAccept( visitor, null );
             return true;
         }
         catch( final ParseException exception )
@@ -228,21 +698,6 @@ public final class Analyzer
         return false;
     }
 
-    private void parse( final ParserVisitor visitor, final String filename ) throws ParseException, IOException
-    {
-        final BufferedReader reader = new BufferedReader( new FileReader( filename ) );
-        try
-        {
-            manager.ReInit( new JavaCharStream( reader ) );
-            parser.ReInit( manager );
-            parser.translation_unit().jjtAccept( visitor, null );
-        }
-        finally
-        {
-            reader.close();
-        }
-    }
-
     private Token getToken( final ParseException exception )
     {
         Token token = exception.currentToken.next;
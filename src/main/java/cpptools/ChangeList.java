@@ -0,0 +1,141 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Reads a list of changed and deleted files.
+ * <p>
+ * Each line holds either a path to a changed file or the output of <em>git diff --name-status</em>, that is a status
+ * letter followed by one path or, for renames and copies, two paths separated by tabulations.
+ *
+ * @author Mathieu Champlon
+ */
+public final class ChangeList
+{
+    private static final char DELETED = 'D';
+    private static final char RENAMED = 'R';
+    private static final char COPIED = 'C';
+    private final Set<String> changed = new LinkedHashSet<String>();
+    private final Set<String> deleted = new LinkedHashSet<String>();
+
+    /**
+     * Create a change list.
+     *
+     * @param filename the name of the file listing the changes
+     * @throws IOException if the file cannot be read
+     */
+    public ChangeList( final String filename ) throws IOException
+    {
+        if( filename == null )
+            throw new IllegalArgumentException( "argument 'filename' is null" );
+        final BufferedReader reader = new BufferedReader( new FileReader( filename ) );
+        try
+        {
+            for( String line = reader.readLine(); line != null; line = reader.readLine() )
+                parse( line );
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    private void parse( final String line )
+    {
+        if( line.trim().length() == 0 )
+            return;
+        final String[] fields = line.split( "\t" );
+        if( fields.length == 1 )
+            changed.add( normalize( line ) );
+        else if( fields[0].charAt( 0 ) == DELETED )
+            deleted.add( normalize( fields[1] ) );
+        else if( fields[0].charAt( 0 ) == RENAMED && fields.length > 2 )
+        {
+            deleted.add( normalize( fields[1] ) );
+            changed.add( normalize( fields[2] ) );
+        }
+        else if( fields[0].charAt( 0 ) == COPIED && fields.length > 2 )
+            changed.add( normalize( fields[2] ) );
+        else
+            changed.add( normalize( fields[1] ) );
+    }
+
+    /**
+     * Normalize a path for comparison purposes.
+     *
+     * @param path the path
+     * @return the normalized path
+     */
+    public static String normalize( final String path )
+    {
+        final String result = new File( path ).getPath();
+        if( result.startsWith( "." + File.separator ) )
+            return result.substring( 2 );
+        return result;
+    }
+
+    /**
+     * Test whether a file has been changed or added.
+     *
+     * @param filename the file name
+     * @return whether the file has changed
+     */
+    public boolean isChanged( final String filename )
+    {
+        return changed.contains( normalize( filename ) );
+    }
+
+    /**
+     * Test whether a file has been deleted.
+     *
+     * @param filename the file name
+     * @return whether the file has been deleted
+     */
+    public boolean isDeleted( final String filename )
+    {
+        return deleted.contains( normalize( filename ) );
+    }
+
+    /**
+     * Retrieve the changed or added files.
+     *
+     * @return the normalized paths
+     */
+    public Set<String> getChanged()
+    {
+        return changed;
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Holds the content of a file.
+ * <p>
+ * The file is memory mapped only once, the parser and all the content observers sharing the same bytes. The text is
+ * decoded from UTF-8, like the parser does, upon first request.
+ *
+ * @author Mathieu Champlon
+ */
+public final class FileContent
+{
+    private static final Charset UTF8 = Charset.forName( "UTF-8" );
+    private final String filename;
+    private final ByteBuffer buffer;
+    private volatile String text;
+
+    /**
+     * Create a file content.
+     *
+     * @param filename the file name
+     * @param bytes the raw content
+     */
+    public FileContent( final String filename, final byte[] bytes )
+    {
+        this( filename, wrap( bytes ) );
+    }
+
+    /**
+     * Create a file content from a buffer.
+     *
+     * @param filename the file name
+     * @param buffer the raw content
+     */
+    private FileContent( final String filename, final ByteBuffer buffer )
+    {
+        if( filename == null )
+            throw new IllegalArgumentException( "argument 'filename' is null" );
+        if( buffer == null )
+            throw new IllegalArgumentException( "argument 'buffer' is null" );
+        this.filename = filename;
+        this.buffer = buffer.asReadOnlyBuffer();
+    }
+
+    private static ByteBuffer wrap( final byte[] bytes )
+    {
+        if( bytes == null )
+            throw new IllegalArgumentException( "argument 'bytes' is null" );
+        return ByteBuffer.wrap( bytes );
+    }
+
+    /**
+     * Read the content of a file.
+     * <p>
+     * The file is memory mapped, it is closed as soon as the content has been created.
+     *
+     * @param filename the file name
+     * @return the file content
+     * @throws IOException if an error occurs
+     */
+    public static FileContent read( final String filename ) throws IOException
+    {
+        final FileInputStream stream = new FileInputStream( filename );
+        try
+        {
+            final FileChannel channel = stream.getChannel();
+            return new FileContent( filename, channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() ) );
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    /**
+     * Retrieve the file name.
+     *
+     * @return the file name
+     */
+    public String getFilename()
+    {
+        return filename;
+    }
+
+    /**
+     * Retrieve the raw content.
+     *
+     * @return a read-only buffer over the content
+     */
+    public ByteBuffer getBuffer()
+    {
+        return buffer.duplicate();
+    }
+
+    /**
+     * Retrieve the decoded content.
+     *
+     * @return the text of the file
+     */
+    public String getText()
+    {
+        String result = text;
+        if( result == null )
+        {
+            result = UTF8.decode( getBuffer() ).toString();
+            text = result;
+        }
+        return result;
+    }
+}
@@ -36,7 +36,7 @@ import java.util.List;
  *
  * @author Mathieu Champlon
  */
-public final class FileObserverComposite implements FileObserver
+public final class FileObserverComposite implements ContentObserver
 {
     private final List<FileObserver> observers = new ArrayList<FileObserver>();
 
@@ -58,4 +58,14 @@ public final class FileObserverComposite implements FileObserver
         for( FileObserver observer : observers )
             observer.changed( filename );
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void notify( final FileContent content )
+    {
+        for( FileObserver observer : observers )
+            if( observer instanceof ContentObserver )
+                ((ContentObserver)observer).notify( content );
+    }
 }
@@ -0,0 +1,101 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import cpptools.preprocessor.Definition;
+
+/**
+ * Holds the result of parsing a header on its own.
+ * <p>
+ * A header is immutable in order to be shared between all the files including it.
+ *
+ * @author Mathieu Champlon
+ */
+public final class Header
+{
+    private final List<String> operations;
+    private final Map<String, Definition> definitions;
+    private final List<String> includes;
+
+    /**
+     * Create a header.
+     *
+     * @param operations the scope operations recorded while parsing the header
+     * @param definitions the symbols defined at the end of the header
+     * @param includes the canonical names of the files included by the header
+     */
+    public Header( final List<String> operations, final Map<String, Definition> definitions,
+            final List<String> includes )
+    {
+        if( operations == null )
+            throw new IllegalArgumentException( "argument 'operations' is null" );
+        if( definitions == null )
+            throw new IllegalArgumentException( "argument 'definitions' is null" );
+        if( includes == null )
+            throw new IllegalArgumentException( "argument 'includes' is null" );
+        this.operations = Collections.unmodifiableList( new ArrayList<String>( operations ) );
+        this.definitions = Collections.unmodifiableMap( new HashMap<String, Definition>( definitions ) );
+        this.includes = Collections.unmodifiableList( new ArrayList<String>( includes ) );
+    }
+
+    /**
+     * Retrieve the scope operations.
+     *
+     * @return the encoded scope operations
+     */
+    public List<String> getOperations()
+    {
+        return operations;
+    }
+
+    /**
+     * Retrieve the symbols defined.
+     *
+     * @return the definitions of the symbols
+     */
+    public Map<String, Definition> getDefinitions()
+    {
+        return definitions;
+    }
+
+    /**
+     * Retrieve the files included.
+     *
+     * @return the canonical names of the files
+     */
+    public List<String> getIncludes()
+    {
+        return includes;
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Resolves included files against include paths and caches the headers parsed.
+ * <p>
+ * Each header is parsed only once whatever the number of files including it, and whatever the number of threads
+ * asking for it at the same time.
+ *
+ * @author Mathieu Champlon
+ */
+public final class Includes
+{
+    private final List<File> paths = new ArrayList<File>();
+    private final ConcurrentMap<String, FutureTask<Header>> headers = new ConcurrentHashMap<String, FutureTask<Header>>();
+
+    /**
+     * Create includes.
+     *
+     * @param paths the include paths
+     */
+    public Includes( final List<String> paths )
+    {
+        if( paths == null )
+            throw new IllegalArgumentException( "argument 'paths' is null" );
+        for( final String path : paths )
+            this.paths.add( new File( path ) );
+    }
+
+    /**
+     * Resolve an included file.
+     * <p>
+     * A file included with quotes is first searched for next to the file including it.
+     *
+     * @param name the name of the file as written in the directive
+     * @param system whether the name is enclosed in angle brackets
+     * @param directory the directory of the file including it
+     * @return the canonical name of the file, null if not found
+     */
+    public String resolve( final String name, final boolean system, final File directory )
+    {
+        if( !system && directory != null )
+        {
+            final String filename = find( directory, name );
+            if( filename != null )
+                return filename;
+        }
+        for( final File path : paths )
+        {
+            final String filename = find( path, name );
+            if( filename != null )
+                return filename;
+        }
+        return null;
+    }
+
+    private String find( final File directory, final String name )
+    {
+        final File file = new File( directory, name );
+        if( !file.isFile() )
+            return null;
+        try
+        {
+            return file.getCanonicalPath();
+        }
+        catch( final IOException e )
+        {
+            return file.getAbsolutePath();
+        }
+    }
+
+    /**
+     * Retrieve a header, parsing it if needed.
+     *
+     * @param filename the canonical name of the header
+     * @param parser the parser to run if the header has not been parsed yet
+     * @return the header
+     */
+    public Header get( final String filename, final Callable<Header> parser )
+    {
+        FutureTask<Header> header = headers.get( filename );
+        if( header == null )
+        {
+            final FutureTask<Header> task = new FutureTask<Header>( parser );
+            header = headers.putIfAbsent( filename, task );
+            if( header == null )
+            {
+                header = task;
+                task.run();
+            }
+        }
+        try
+        {
+            return header.get();
+        }
+        catch( final InterruptedException e )
+        {
+            throw new RuntimeException( e );
+        }
+        catch( final ExecutionException e )
+        {
+            throw new RuntimeException( e.getCause() );
+        }
+    }
+}
@@ -0,0 +1,435 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import cppast.SymbolJournal;
+
+/**
+ * Stores the results of the analysis of files between runs.
+ * <p>
+ * The results of a file are reused as long as its content, the content of the headers it includes, the analysis settings
+ * and the scopes declared by all the files analyzed before it remain the same, the latter because names are resolved
+ * against them.
+ * <p>
+ * Files which failed to be parsed are remembered in order to keep track of all the files analyzed, but their results
+ * are never reused.
+ *
+ * @author Mathieu Champlon
+ */
+public final class ResultCache
+{
+    private static final int VERSION = 3;
+    private static final String ALGORITHM = "MD5";
+    private static final int BUFFER_SIZE = 8192;
+    private final String filename;
+    private final String settings;
+    private final CacheObserver observer;
+    private final Map<String, Entry> previous = new LinkedHashMap<String, Entry>();
+    private final Map<String, Entry> current = new LinkedHashMap<String, Entry>();
+    private final Map<String, String> digests = new HashMap<String, String>();
+    private final List<String> anticipated = new LinkedList<String>();
+    private final MessageDigest digest;
+    private String context = "";
+    private List<String> records;
+
+    /**
+     * Holds the cached results of a file.
+     *
+     * @author Mathieu Champlon
+     */
+    private static final class Entry
+    {
+        private final String content;
+        private final Map<String, String> headers;
+        private final String context;
+        private final boolean valid;
+        private final List<String> operations;
+        private final List<String> records;
+
+        public Entry( final String content, final Map<String, String> headers, final String context,
+                final boolean valid, final List<String> operations, final List<String> records )
+        {
+            this.content = content;
+            this.headers = headers;
+            this.context = context;
+            this.valid = valid;
+            this.operations = operations;
+            this.records = records;
+        }
+    }
+
+    /**
+     * Create a result cache.
+     * <p>
+     * The cache file is loaded if it exists and has been written with the same settings, otherwise the cache starts
+     * empty.
+     *
+     * @param filename the cache file name
+     * @param settings the analysis settings the results depend on
+     * @param observer the observer recording and replaying results
+     */
+    public ResultCache( final String filename, final String settings, final CacheObserver observer )
+    {
+        if( filename == null )
+            throw new IllegalArgumentException( "argument 'filename' is null" );
+        if( settings == null )
+            throw new IllegalArgumentException( "argument 'settings' is null" );
+        if( observer == null )
+            throw new IllegalArgumentException( "argument 'observer' is null" );
+        this.filename = filename;
+        this.settings = settings;
+        this.observer = observer;
+        this.digest = createDigest();
+        if( new File( filename ).exists() )
+            load();
+    }
+
+    private void load()
+    {
+        try
+        {
+            read();
+        }
+        catch( final IOException e )
+        {
+            previous.clear();
+        }
+    }
+
+    private static MessageDigest createDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance( ALGORITHM );
+        }
+        catch( final NoSuchAlgorithmException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /**
+     * Retrieve the files analyzed during the run the cache has been loaded from.
+     *
+     * @return the file names in the order they have been analyzed
+     */
+    public List<String> getFiles()
+    {
+        return new ArrayList<String>( previous.keySet() );
+    }
+
+    /**
+     * Consider a file unchanged since its results have been cached, without reading its content.
+     *
+     * @param filename the file name
+     */
+    public void assumeUnchanged( final String filename )
+    {
+        final Entry entry = previous.get( filename );
+        if( entry != null )
+            digests.put( filename, entry.content );
+    }
+
+    /**
+     * Test whether a file has cached results for its current content.
+     * <p>
+     * The results may still turn out not to be usable because of the files analyzed before.
+     *
+     * @param filename the file name
+     * @return whether results are cached or not
+     */
+    public boolean contains( final String filename )
+    {
+        return matches( filename, previous.get( filename ) );
+    }
+
+    private boolean matches( final String filename, final Entry entry )
+    {
+        if( entry == null || !entry.valid || !entry.content.equals( getContentDigest( filename ) ) )
+            return false;
+        for( final Map.Entry<String, String> header : entry.headers.entrySet() )
+            if( !header.getValue().equals( getContentDigest( header.getKey() ) ) )
+                return false;
+        return true;
+    }
+
+    /**
+     * Anticipate whether the cached results of a file will be replayed.
+     * <p>
+     * Files must be anticipated in the order they are analyzed, before being either replayed or stored. The outcome is
+     * predicted from the cached scopes of the files anticipated but not analyzed yet, therefore it is unknown as long
+     * as one of them is not expected to be replayed.
+     *
+     * @param filename the file name
+     * @return whether the results are known to be replayed or not
+     */
+    public boolean anticipate( final String filename )
+    {
+        anticipated.add( filename );
+        String expected = context;
+        for( final String name : anticipated )
+        {
+            final Entry entry = previous.get( name );
+            if( !matches( name, entry ) || !entry.context.equals( expected ) )
+                return false;
+            expected = chain( expected, entry.operations );
+        }
+        return true;
+    }
+
+    /**
+     * Replay the cached results of a file if they are still valid.
+     *
+     * @param filename the file name
+     * @param journal the journal to record the scope operations of the file into
+     * @return whether the results have been replayed or not
+     */
+    public boolean replay( final String filename, final SymbolJournal journal )
+    {
+        final Entry entry = previous.get( filename );
+        if( !matches( filename, entry ) || !entry.context.equals( context ) )
+            return false;
+        journal.addOperations( entry.operations );
+        observer.replay( entry.records );
+        current.put( filename, entry );
+        anticipated.remove( filename );
+        context = chain( context, entry.operations );
+        return true;
+    }
+
+    /**
+     * Start recording the results of a file.
+     */
+    public void record()
+    {
+        records = new ArrayList<String>();
+        observer.record( records );
+    }
+
+    /**
+     * Stop recording the results of a file.
+     *
+     * @param filename the file name
+     * @param headers the headers included by the file, directly or not
+     * @param journal the journal holding the scope operations of the file
+     * @param valid whether the results can be reused or not
+     */
+    public void store( final String filename, final List<String> headers, final SymbolJournal journal,
+            final boolean valid )
+    {
+        observer.record( null );
+        final List<String> operations = journal.getOperations();
+        final String content = getContentDigest( filename );
+        final Map<String, String> included = getContentDigests( headers );
+        if( content != null )
+            current.put( filename, new Entry( content, included, context, valid && included.size() == headers.size(),
+                    operations, records ) );
+        records = null;
+        anticipated.remove( filename );
+        context = chain( context, operations );
+    }
+
+    private String chain( final String base, final List<String> operations )
+    {
+        try
+        {
+            digest.update( base.getBytes( "UTF-8" ) );
+            for( final String operation : operations )
+            {
+                digest.update( operation.getBytes( "UTF-8" ) );
+                digest.update( (byte)0 );
+            }
+            return toHex( digest.digest() );
+        }
+        catch( final IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private Map<String, String> getContentDigests( final List<String> filenames )
+    {
+        final Map<String, String> result = new LinkedHashMap<String, String>();
+        for( final String filename : filenames )
+        {
+            final String content = getContentDigest( filename );
+            if( content != null )
+                result.put( filename, content );
+        }
+        return result;
+    }
+
+    private String getContentDigest( final String filename )
+    {
+        if( !digests.containsKey( filename ) )
+            digests.put( filename, computeContentDigest( filename ) );
+        return digests.get( filename );
+    }
+
+    private String computeContentDigest( final String filename )
+    {
+        final MessageDigest content = createDigest();
+        try
+        {
+            final InputStream stream = new FileInputStream( filename );
+            try
+            {
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                for( int read = stream.read( buffer ); read != -1; read = stream.read( buffer ) )
+                    content.update( buffer, 0, read );
+            }
+            finally
+            {
+                stream.close();
+            }
+        }
+        catch( final IOException e )
+        {
+            return null;
+        }
+        return toHex( content.digest() );
+    }
+
+    private static String toHex( final byte[] bytes )
+    {
+        final StringBuilder builder = new StringBuilder( bytes.length * 2 );
+        for( final byte b : bytes )
+            builder.append( Character.forDigit( (b >> 4) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+        return builder.toString();
+    }
+
+    private void read() throws IOException
+    {
+        final DataInputStream stream = new DataInputStream( new BufferedInputStream( new FileInputStream( filename ) ) );
+        try
+        {
+            if( stream.readInt() != VERSION || !stream.readUTF().equals( settings ) )
+                return;
+            final int size = stream.readInt();
+            for( int index = 0; index < size; ++index )
+            {
+                final String name = stream.readUTF();
+                final String content = stream.readUTF();
+                final Map<String, String> headers = readMap( stream );
+                final String context = stream.readUTF();
+                final boolean valid = stream.readBoolean();
+                previous.put( name, new Entry( content, headers, context, valid, readList( stream ),
+                        readList( stream ) ) );
+            }
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    private Map<String, String> readMap( final DataInputStream stream ) throws IOException
+    {
+        final int size = stream.readInt();
+        final Map<String, String> result = new LinkedHashMap<String, String>();
+        for( int index = 0; index < size; ++index )
+            result.put( stream.readUTF(), stream.readUTF() );
+        return result;
+    }
+
+    private List<String> readList( final DataInputStream stream ) throws IOException
+    {
+        final int size = stream.readInt();
+        final List<String> result = new ArrayList<String>( size );
+        for( int index = 0; index < size; ++index )
+            result.add( stream.readUTF() );
+        return result;
+    }
+
+    /**
+     * Write the results of all the files analyzed to the cache file.
+     *
+     * @throws IOException if the cache file cannot be written
+     */
+    public void save() throws IOException
+    {
+        final DataOutputStream stream = new DataOutputStream( new BufferedOutputStream(
+                new FileOutputStream( filename ) ) );
+        try
+        {
+            stream.writeInt( VERSION );
+            stream.writeUTF( settings );
+            stream.writeInt( current.size() );
+            for( final Map.Entry<String, Entry> result : current.entrySet() )
+            {
+                final Entry entry = result.getValue();
+                stream.writeUTF( result.getKey() );
+                stream.writeUTF( entry.content );
+                writeMap( stream, entry.headers );
+                stream.writeUTF( entry.context );
+                stream.writeBoolean( entry.valid );
+                writeList( stream, entry.operations );
+                writeList( stream, entry.records );
+            }
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    private void writeMap( final DataOutputStream stream, final Map<String, String> map ) throws IOException
+    {
+        stream.writeInt( map.size() );
+        for( final Map.Entry<String, String> value : map.entrySet() )
+        {
+            stream.writeUTF( value.getKey() );
+            stream.writeUTF( value.getValue() );
+        }
+    }
+
+    private void writeList( final DataOutputStream stream, final List<String> list ) throws IOException
+    {
+        stream.writeInt( list.size() );
+        for( final String value : list )
+            stream.writeUTF( value );
+    }
+}
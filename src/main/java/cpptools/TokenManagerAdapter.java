@@ -28,7 +28,7 @@
 
 package cpptools;
 
-import cppast.JavaCharStream;
+import cppast.CharStream;
 import cppast.ParserTokenManager;
 import cppast.Token;
 import cpptools.preprocessor.TokenProvider;
@@ -58,7 +58,7 @@ public final class TokenManagerAdapter extends ParserTokenManager
     /**
      * {@inheritDoc}
      */
-    public void ReInit( final JavaCharStream stream )
+    public void ReInit( final CharStream stream )
     {
         provider.reset( stream );
     }
@@ -28,7 +28,8 @@
 
 package cpptools;
 
-import cppast.JavaCharStream;
+import cppast.CharStream;
+import cppast.ParserConstants;
 import cppast.ParserTokenManager;
 import cppast.Token;
 import cpptools.preprocessor.TokenProvider;
@@ -41,6 +42,7 @@ import cpptools.preprocessor.TokenProvider;
 public final class TokenProviderAdapter implements TokenProvider
 {
     private final ParserTokenManager manager;
+    private final int state;
 
     /**
      * Create a token provider adapter.
@@ -48,10 +50,25 @@ public final class TokenProviderAdapter implements TokenProvider
      * @param manager the parsdr token manager to adapt
      */
     public TokenProviderAdapter( final ParserTokenManager manager )
+    {
+        this( manager, true );
+    }
+
+    /**
+     * Create a token provider adapter.
+     * <p>
+     * Without comments neither the comments nor the new lines are made into special tokens, the preprocessing
+     * directives being the only special tokens left.
+     *
+     * @param manager the parsdr token manager to adapt
+     * @param comments whether to keep the comments
+     */
+    public TokenProviderAdapter( final ParserTokenManager manager, final boolean comments )
     {
         if( manager == null )
             throw new IllegalArgumentException( "parameter 'manager' is null" );
         this.manager = manager;
+        this.state = comments ? ParserConstants.DEFAULT : ParserConstants.COMMENTLESS;
     }
 
     /**
@@ -65,8 +82,24 @@ public final class TokenProviderAdapter implements TokenProvider
     /**
      * {@inheritDoc}
      */
-    public void reset( final JavaCharStream stream )
+    public Token skip()
+    {
+        manager.SwitchTo( ParserConstants.INACTIVE );
+        try
+        {
+            return manager.getNextToken();
+        }
+        finally
+        {
+            manager.SwitchTo( state );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void reset( final CharStream stream )
     {
-        manager.ReInit( stream );
+        manager.ReInit( stream, state );
     }
 }
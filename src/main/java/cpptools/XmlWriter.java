@@ -0,0 +1,218 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides a streaming writer for indented XML documents.
+ * <p>
+ * Only the names of the currently opened elements are kept in memory. Attributes are given as consecutive name and
+ * value pairs.
+ *
+ * @author Mathieu Champlon
+ */
+public final class XmlWriter
+{
+    private static final String ENCODING = "UTF-8";
+    private final PrintWriter writer;
+    private final String root;
+    private final String indentation;
+    private final List<String> elements = new ArrayList<String>();
+
+    /**
+     * Create an XML writer.
+     *
+     * @param stream the stream to write to
+     * @param root the name of the root element
+     * @param indentation the number of spaces to indent each level with
+     * @throws UnsupportedEncodingException if the encoding is not supported
+     */
+    public XmlWriter( final PrintStream stream, final String root, final int indentation )
+            throws UnsupportedEncodingException
+    {
+        if( stream == null )
+            throw new IllegalArgumentException( "argument 'stream' is null" );
+        if( root == null )
+            throw new IllegalArgumentException( "argument 'root' is null" );
+        this.writer = new PrintWriter( new BufferedWriter( new OutputStreamWriter( stream, ENCODING ) ) );
+        this.root = root;
+        this.indentation = createIndentation( indentation );
+    }
+
+    private static String createIndentation( final int indentation )
+    {
+        final StringBuilder builder = new StringBuilder();
+        for( int index = 0; index < indentation; ++index )
+            builder.append( ' ' );
+        return builder.toString();
+    }
+
+    /**
+     * Open an element.
+     *
+     * @param name the element name
+     * @param attributes the attribute names and values
+     */
+    public void openElement( final String name, final String... attributes )
+    {
+        start();
+        writer.println( "<" + name + format( attributes ) + ">" );
+        elements.add( name );
+    }
+
+    /**
+     * Close elements down to a given depth.
+     * <p>
+     * The root element is at depth 1.
+     *
+     * @param depth the depth to go back to
+     */
+    public void closeElements( final int depth )
+    {
+        while( elements.size() > depth )
+        {
+            final String name = elements.remove( elements.size() - 1 );
+            indent();
+            writer.println( "</" + name + ">" );
+        }
+    }
+
+    /**
+     * Retrieve the current depth.
+     *
+     * @return the number of opened elements
+     */
+    public int getDepth()
+    {
+        return elements.size();
+    }
+
+    /**
+     * Add an element with text content.
+     *
+     * @param name the element name
+     * @param content the text content
+     */
+    public void addElement( final String name, final String content )
+    {
+        start();
+        writer.println( "<" + name + ">" + escape( content, false ) + "</" + name + ">" );
+    }
+
+    /**
+     * Add an element without content.
+     *
+     * @param name the element name
+     * @param attributes the attribute names and values
+     */
+    public void addEmptyElement( final String name, final String... attributes )
+    {
+        start();
+        writer.println( "<" + name + format( attributes ) + "/>" );
+    }
+
+    /**
+     * Write buffered content to the stream.
+     */
+    public void flush()
+    {
+        writer.flush();
+    }
+
+    /**
+     * Close all elements including the root and write buffered content to the stream.
+     */
+    public void finish()
+    {
+        if( elements.isEmpty() )
+            writer.println( header() + "<" + root + "/>" );
+        else
+            closeElements( 0 );
+        writer.flush();
+    }
+
+    private void start()
+    {
+        if( elements.isEmpty() )
+        {
+            writer.println( header() + "<" + root + ">" );
+            elements.add( root );
+        }
+        indent();
+    }
+
+    private String header()
+    {
+        return "<?xml version=\"1.0\" encoding=\"" + ENCODING + "\"?>";
+    }
+
+    private void indent()
+    {
+        for( int depth = 0; depth < elements.size(); ++depth )
+            writer.print( indentation );
+    }
+
+    private String format( final String[] attributes )
+    {
+        final StringBuilder builder = new StringBuilder();
+        for( int index = 0; index + 1 < attributes.length; index += 2 )
+            builder.append( ' ' ).append( attributes[index] ).append( "=\"" ).append( escape( attributes[index + 1], true ) )
+                    .append( '"' );
+        return builder.toString();
+    }
+
+    private String escape( final String text, final boolean attribute )
+    {
+        final StringBuilder builder = new StringBuilder( text.length() );
+        for( int index = 0; index < text.length(); ++index )
+        {
+            final char c = text.charAt( index );
+            if( c == '<' )
+                builder.append( "&lt;" );
+            else if( c == '>' )
+                builder.append( "&gt;" );
+            else if( c == '&' )
+                builder.append( "&amp;" );
+            else if( attribute && c == '"' )
+                builder.append( "&quot;" );
+            else if( attribute && (c == '\n' || c == '\r' || c == '\t') )
+                builder.append( "&#" ).append( (int)c ).append( ';' );
+            else
+                builder.append( c );
+        }
+        return builder.toString();
+    }
+}
@@ -28,11 +28,8 @@
 
 package cpptools.preprocessor;
 
-import java.io.StringReader;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
-import cppast.JavaCharStream;
+import cppast.BufferCharStream;
 import cppast.ParserConstants;
 import cppast.ParserTokenManager;
 import cppast.Token;
@@ -44,53 +41,63 @@ import cppast.Token;
  */
 public abstract class AbstractTokenFilter implements TokenFilter
 {
-    private final Stack<Token> buffer;
-    private final List<Token> tokens;
+    private final TokenBuffer buffer;
+    private final Definition definition;
     private final String name;
 
     /**
      * Create an abstract token filter.
      *
-     * @param buffer the token stack where to output filtered tokens
+     * @param buffer the token buffer where to output filtered tokens
      * @param name the name of the filter
-     * @param value the raw value of the filtering result
+     * @param definition the definition of the filtering result
      */
-    public AbstractTokenFilter( final Stack<Token> buffer, final String name, final String value )
+    public AbstractTokenFilter( final TokenBuffer buffer, final String name, final Definition definition )
     {
         if( buffer == null )
             throw new IllegalArgumentException( "parameter 'buffer' is null" );
         if( name == null )
             throw new IllegalArgumentException( "parameter 'name' is null" );
+        if( definition == null )
+            throw new IllegalArgumentException( "parameter 'definition' is null" );
         this.buffer = buffer;
-        this.name = check( name );
-        this.tokens = parse( value );
+        this.name = name;
+        this.definition = definition;
     }
 
-    private String check( final String name )
+    /**
+     * Check the validity of a symbol name and value.
+     *
+     * @param name the name of the symbol
+     * @param definition the definition of the symbol
+     * @return the definition
+     */
+    protected static Definition check( final String name, final Definition definition )
     {
+        if( name == null )
+            throw new IllegalArgumentException( "parameter 'name' is null" );
         if( name.length() == 0 )
             throw new IllegalArgumentException( "Empty macro/define name specified" );
-        final ParserTokenManager manager = new ParserTokenManager( new JavaCharStream( new StringReader( name ) ) );
+        final ParserTokenManager manager = new ParserTokenManager( new BufferCharStream( name ) );
         final Token token = manager.getNextToken();
         if( token.kind != ParserConstants.ID )
             throw new IllegalArgumentException( "Illegal macro/define name : " + "'" + name + "'" );
         final Token next = manager.getNextToken();
         if( next.kind != ParserConstants.EOF )
             throw new IllegalArgumentException( "Illegal macro/define name : " + "'" + name + "'" );
-        return name;
+        if( !definition.isExpandable() )
+            throw new IllegalArgumentException( "Illegal macro/define value : " + "'" + definition.getValue() + "'" );
+        return definition;
     }
 
-    private List<Token> parse( final String value )
+    /**
+     * Retrieve the definition.
+     *
+     * @return the definition
+     */
+    public final Definition getDefinition()
     {
-        final List<Token> result = new ArrayList<Token>();
-        final ParserTokenManager manager = new ParserTokenManager( new JavaCharStream( new StringReader( value ) ) );
-        Token token = manager.getNextToken();
-        while( token.kind != ParserConstants.EOF )
-        {
-            result.add( 0, token );
-            token = manager.getNextToken();
-        }
-        return result;
+        return definition;
     }
 
     /**
@@ -109,11 +116,34 @@ public abstract class AbstractTokenFilter implements TokenFilter
      * Insert filtered tokens into the token flow.
      *
      * @param location the location of the insertion
+     * @param arguments the tokens of each argument
      */
-    protected final void insert( final Token location )
+    protected final void insert( final Token location, final List<List<Token>> arguments )
     {
-        for( Token token : tokens )
-            buffer.push( copy( token, location ) );
+        final boolean[] used = new boolean[arguments.size()];
+        for( int index = definition.getSize() - 1; index >= 0; --index )
+        {
+            final int parameter = definition.getParameter( index );
+            if( parameter == -1 )
+                buffer.push( copy( definition.getToken( index ), location ) );
+            else if( parameter < arguments.size() )
+            {
+                insert( arguments.get( parameter ), used[parameter] );
+                used[parameter] = true;
+            }
+        }
+    }
+
+    private void insert( final List<Token> tokens, final boolean copy )
+    {
+        for( int index = tokens.size() - 1; index >= 0; --index )
+        {
+            final Token token = tokens.get( index );
+            if( copy )
+                buffer.push( copy( token, token ) );
+            else
+                buffer.push( token );
+        }
     }
 
     private Token copy( final Token token, final Token location )
@@ -125,7 +155,6 @@ public abstract class AbstractTokenFilter implements TokenFilter
         result.endColumn = location.endColumn;
         result.endLine = location.endLine;
         result.image = token.image;
-        result.next = token.next;
         return result;
     }
 
@@ -0,0 +1,146 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools.preprocessor;
+
+import cppast.CharStream;
+import cppast.ParserConstants;
+import cppast.Token;
+
+/**
+ * Processes the directives and filters out the code disabled by conditional directives.
+ * <p>
+ * The special tokens of the code skipped are kept and attached to the next token provided.
+ *
+ * @author Mathieu Champlon
+ */
+final class ConditionalTokenProvider implements TokenProvider
+{
+    private final TokenProvider provider;
+    private final Conditions conditions;
+    private final boolean skipping;
+
+    /**
+     * Create a conditional token provider.
+     *
+     * @param provider the token provider
+     * @param conditions the conditions
+     * @param skipping whether to skip the disabled code or only to process the directives
+     */
+    public ConditionalTokenProvider( final TokenProvider provider, final Conditions conditions, final boolean skipping )
+    {
+        if( provider == null )
+            throw new IllegalArgumentException( "parameter 'provider' is null" );
+        if( conditions == null )
+            throw new IllegalArgumentException( "parameter 'conditions' is null" );
+        this.provider = provider;
+        this.conditions = conditions;
+        this.skipping = skipping;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void reset( final CharStream stream )
+    {
+        conditions.reset();
+        provider.reset( stream );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Token next()
+    {
+        Token skipped = null;
+        Token token = provider.next();
+        while( !process( token.specialToken ) && skipping && token.kind != ParserConstants.EOF )
+        {
+            skipped = skip( chain( token.specialToken, skipped ) );
+            token = provider.next();
+        }
+        token.specialToken = chain( token.specialToken, skipped );
+        return token;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Token skip()
+    {
+        return provider.skip();
+    }
+
+    private boolean process( final Token specialToken )
+    {
+        if( specialToken != null )
+        {
+            for( Token token = findEnd( specialToken ); token != null; token = token.next )
+                if( token.kind == ParserConstants.PREPROCESSOR )
+                    conditions.process( token.image );
+        }
+        return conditions.isActive();
+    }
+
+    private Token skip( final Token specialToken )
+    {
+        Token skipped = specialToken;
+        Token directive = provider.skip();
+        while( directive.kind == ParserConstants.INACTIVE_DIRECTIVE )
+        {
+            directive.kind = ParserConstants.PREPROCESSOR;
+            skipped = chain( directive, skipped );
+            conditions.process( directive.image );
+            if( conditions.isActive() )
+                return skipped;
+            directive = provider.skip();
+        }
+        return skipped;
+    }
+
+    private Token chain( final Token newer, final Token older )
+    {
+        if( newer == null )
+            return older;
+        if( older != null )
+        {
+            final Token end = findEnd( newer );
+            end.specialToken = older;
+            older.next = end;
+        }
+        return newer;
+    }
+
+    private Token findEnd( final Token token )
+    {
+        Token end = token;
+        while( end.specialToken != null )
+            end = end.specialToken;
+        return end;
+    }
+}
@@ -0,0 +1,279 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools.preprocessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+/**
+ * Tracks the conditional directives in order to tell whether the code is active.
+ * <p>
+ * A branch is considered inactive only when its condition can be evaluated, any group involving a condition which
+ * cannot be evaluated being kept entirely active.
+ * <p>
+ * The symbols defined by the files included are added to the symbols defined so far.
+ *
+ * @author Mathieu Champlon
+ */
+public final class Conditions
+{
+    private static final int ACTIVE = 0;
+    private static final int WAITING = 1;
+    private static final int DONE = 2;
+    private static final int UNKNOWN = 3;
+    private final Map<String, Definition> defaults = new HashMap<String, Definition>();
+    private final Map<String, Definition> definitions = new HashMap<String, Definition>();
+    private final Map<String, String> symbols = new HashMap<String, String>();
+    private final Stack<Integer> groups = new Stack<Integer>();
+    private final IncludeHandler handler;
+
+    /**
+     * Create conditions.
+     *
+     * @param handler the include directive handler, null to ignore include directives
+     */
+    public Conditions( final IncludeHandler handler )
+    {
+        this.handler = handler;
+    }
+
+    /**
+     * Define a symbol.
+     *
+     * @param name the name of the symbol
+     * @param definition the definition of the symbol
+     */
+    public void define( final String name, final Definition definition )
+    {
+        defaults.put( name, definition );
+        put( name, definition );
+    }
+
+    private void put( final String name, final Definition definition )
+    {
+        definitions.put( name, definition );
+        if( definition.isMacro() )
+            symbols.put( name, null );
+        else
+            symbols.put( name, definition.getValue() );
+    }
+
+    private void remove( final String name )
+    {
+        definitions.remove( name );
+        symbols.remove( name );
+    }
+
+    /**
+     * Reset the conditions and the symbols defined by the directives.
+     */
+    public void reset()
+    {
+        groups.clear();
+        definitions.clear();
+        symbols.clear();
+        for( final Map.Entry<String, Definition> entry : defaults.entrySet() )
+            put( entry.getKey(), entry.getValue() );
+    }
+
+    /**
+     * Retrieve the symbols currently defined.
+     *
+     * @return the definitions of the symbols
+     */
+    public Map<String, Definition> getDefinitions()
+    {
+        return Collections.unmodifiableMap( definitions );
+    }
+
+    /**
+     * Retrieve the definition of a symbol.
+     *
+     * @param name the name of the symbol
+     * @return the definition, null if the symbol is not defined
+     */
+    public Definition getDefinition( final String name )
+    {
+        return definitions.get( name );
+    }
+
+    /**
+     * Tell whether the code is currently active.
+     *
+     * @return whether the code is active
+     */
+    public boolean isActive()
+    {
+        return groups.empty() || groups.peek() == ACTIVE || groups.peek() == UNKNOWN;
+    }
+
+    /**
+     * Process a directive.
+     *
+     * @param directive the text of the directive
+     */
+    public void process( final String directive )
+    {
+        final String text = directive.replaceAll( "\\\\\\r?\\n", " " ).trim();
+        if( !text.startsWith( "#" ) )
+            return;
+        final String line = text.substring( 1 ).trim();
+        int end = 0;
+        while( end < line.length() && Character.isLetter( line.charAt( end ) ) )
+            ++end;
+        process( line.substring( 0, end ), line.substring( end ) );
+    }
+
+    private void process( final String name, final String arguments )
+    {
+        if( name.equals( "if" ) )
+            open( evaluate( arguments ) );
+        else if( name.equals( "ifdef" ) )
+            open( defined( arguments ) );
+        else if( name.equals( "ifndef" ) )
+            open( negate( defined( arguments ) ) );
+        else if( name.equals( "elif" ) )
+            alternate( arguments );
+        else if( name.equals( "else" ) )
+            alternate( null );
+        else if( name.equals( "endif" ) && !groups.empty() )
+            groups.pop();
+        else if( name.equals( "define" ) && isActive() )
+            define( arguments );
+        else if( name.equals( "undef" ) && isActive() )
+            remove( arguments.trim() );
+        else if( name.equals( "include" ) && isActive() && handler != null )
+            include( arguments.trim() );
+    }
+
+    private void include( final String arguments )
+    {
+        final boolean system = arguments.startsWith( "<" );
+        if( !system && !arguments.startsWith( "\"" ) )
+            return;
+        final int end = arguments.indexOf( system ? '>' : '"', 1 );
+        if( end == -1 )
+            return;
+        final Map<String, Definition> included = handler.include( arguments.substring( 1, end ), system );
+        if( included != null )
+            for( final Map.Entry<String, Definition> entry : included.entrySet() )
+                put( entry.getKey(), entry.getValue() );
+    }
+
+    private void open( final int state )
+    {
+        if( isActive() )
+            groups.push( state );
+        else
+            groups.push( DONE );
+    }
+
+    private void alternate( final String condition )
+    {
+        if( groups.empty() )
+            return;
+        final int state = groups.pop();
+        if( state == ACTIVE || state == DONE )
+            groups.push( DONE );
+        else if( state == UNKNOWN )
+            groups.push( UNKNOWN );
+        else if( condition == null )
+            groups.push( ACTIVE );
+        else
+            groups.push( evaluate( condition ) );
+    }
+
+    private int evaluate( final String condition )
+    {
+        try
+        {
+            if( Expression.evaluate( condition, symbols ) != 0 )
+                return ACTIVE;
+            return WAITING;
+        }
+        catch( final IllegalArgumentException e )
+        {
+            return UNKNOWN;
+        }
+    }
+
+    private int defined( final String arguments )
+    {
+        final String name = arguments.trim();
+        if( name.length() == 0 )
+            return UNKNOWN;
+        if( symbols.containsKey( getIdentifier( name ) ) )
+            return ACTIVE;
+        return WAITING;
+    }
+
+    private int negate( final int state )
+    {
+        if( state == ACTIVE )
+            return WAITING;
+        if( state == WAITING )
+            return ACTIVE;
+        return state;
+    }
+
+    private void define( final String arguments )
+    {
+        final String text = arguments.trim();
+        final String name = getIdentifier( text );
+        if( name.length() == 0 )
+            return;
+        final int end = text.indexOf( ')', name.length() );
+        if( !text.startsWith( "(", name.length() ) )
+            put( name, new Definition( null, text.substring( name.length() ).trim() ) );
+        else if( end != -1 )
+            put( name, new Definition( getParameters( text.substring( name.length() + 1, end ) ), text.substring(
+                    end + 1 ).trim() ) );
+    }
+
+    private List<String> getParameters( final String text )
+    {
+        final List<String> parameters = new ArrayList<String>();
+        if( text.trim().length() > 0 )
+            for( final String parameter : text.split( "," ) )
+                parameters.add( parameter.trim() );
+        return parameters;
+    }
+
+    private String getIdentifier( final String text )
+    {
+        int end = 0;
+        while( end < text.length() && (Character.isLetterOrDigit( text.charAt( end ) ) || text.charAt( end ) == '_') )
+            ++end;
+        return text.substring( 0, end );
+    }
+}
@@ -28,7 +28,8 @@
 
 package cpptools.preprocessor;
 
-import java.util.Stack;
+import java.util.Collections;
+import java.util.List;
 import cppast.Token;
 
 /**
@@ -41,13 +42,25 @@ public final class Define extends AbstractTokenFilter
     /**
      * Create a define definition.
      *
-     * @param buffer the token stack where to output filtered tokens
+     * @param buffer the token buffer where to output filtered tokens
      * @param name the define symbol
      * @param value the define value
      */
-    public Define( final Stack<Token> buffer, final String name, final String value )
+    public Define( final TokenBuffer buffer, final String name, final String value )
     {
-        super( buffer, name, value );
+        super( buffer, name, check( name, new Definition( null, value ) ) );
+    }
+
+    /**
+     * Create a define definition from a definition already checked.
+     *
+     * @param buffer the token buffer where to output filtered tokens
+     * @param name the define symbol
+     * @param definition the define definition
+     */
+    public Define( final TokenBuffer buffer, final String name, final Definition definition )
+    {
+        super( buffer, name, definition );
     }
 
     /**
@@ -55,6 +68,6 @@ public final class Define extends AbstractTokenFilter
      */
     protected void filter( final Token token )
     {
-        insert( token );
+        insert( token, Collections.<List<Token>> emptyList() );
     }
 }
@@ -0,0 +1,253 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools.preprocessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import cppast.BufferCharStream;
+import cppast.ParserConstants;
+import cppast.ParserTokenManager;
+import cppast.Token;
+import cppast.TokenMgrError;
+
+/**
+ * Holds the definition of a symbol.
+ * <p>
+ * The value is tokenized only once, the first time the symbol is expanded, into a template where the occurrences of
+ * the parameters are marked. A definition is immutable and can therefore be shared between threads.
+ *
+ * @author Mathieu Champlon
+ */
+public final class Definition
+{
+    private static final String VARIADIC = "...";
+    private static final String VARIADIC_NAME = "__VA_ARGS__";
+    private final List<String> parameters;
+    private final String value;
+    private volatile Template template;
+    private volatile boolean compiled;
+
+    /**
+     * Holds the tokens of a value along with the parameters they refer to.
+     *
+     * @author Mathieu Champlon
+     */
+    private static final class Template
+    {
+        private final Token[] tokens;
+        private final int[] parameters;
+        private final boolean operators;
+
+        public Template( final Token[] tokens, final int[] parameters, final boolean operators )
+        {
+            this.tokens = tokens;
+            this.parameters = parameters;
+            this.operators = operators;
+        }
+    }
+
+    /**
+     * Create a definition.
+     *
+     * @param parameters the parameter names, null for a symbol which does not take any argument
+     * @param value the value
+     */
+    public Definition( final List<String> parameters, final String value )
+    {
+        if( value == null )
+            throw new IllegalArgumentException( "argument 'value' is null" );
+        if( parameters == null )
+            this.parameters = null;
+        else
+            this.parameters = Collections.unmodifiableList( new ArrayList<String>( parameters ) );
+        this.value = value;
+    }
+
+    /**
+     * Tell whether the symbol takes arguments.
+     *
+     * @return whether the symbol is a macro
+     */
+    public boolean isMacro()
+    {
+        return parameters != null;
+    }
+
+    /**
+     * Retrieve the value.
+     *
+     * @return the value
+     */
+    public String getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Retrieve the number of parameters.
+     *
+     * @return the number of parameters
+     */
+    public int getParameterCount()
+    {
+        if( parameters == null )
+            return 0;
+        return parameters.size();
+    }
+
+    /**
+     * Tell whether the last parameter gathers all the remaining arguments.
+     *
+     * @return whether the macro is variadic
+     */
+    public boolean isVariadic()
+    {
+        return getParameterCount() > 0 && parameters.get( parameters.size() - 1 ).endsWith( VARIADIC );
+    }
+
+    /**
+     * Tell whether the value can be expanded.
+     * <p>
+     * Values which cannot be tokenized cannot be expanded.
+     *
+     * @return whether the value can be expanded
+     */
+    public boolean isExpandable()
+    {
+        return getTemplate() != null;
+    }
+
+    /**
+     * Tell whether the value uses the stringizing or token pasting operators.
+     * <p>
+     * Only a # outside of string and character literals counts as an operator.
+     *
+     * @return whether the value uses operators
+     */
+    public boolean hasOperators()
+    {
+        return getTemplate().operators;
+    }
+
+    /**
+     * Retrieve the number of tokens of the value.
+     *
+     * @return the number of tokens
+     */
+    public int getSize()
+    {
+        return getTemplate().tokens.length;
+    }
+
+    /**
+     * Retrieve a token of the value.
+     *
+     * @param index the index of the token
+     * @return the token
+     */
+    public Token getToken( final int index )
+    {
+        return getTemplate().tokens[index];
+    }
+
+    /**
+     * Retrieve the parameter a token of the value refers to.
+     *
+     * @param index the index of the token
+     * @return the index of the parameter, -1 if the token is not a parameter
+     */
+    public int getParameter( final int index )
+    {
+        return getTemplate().parameters[index];
+    }
+
+    private Template getTemplate()
+    {
+        if( !compiled )
+        {
+            template = compile();
+            compiled = true;
+        }
+        return template;
+    }
+
+    private Template compile()
+    {
+        final List<Token> tokens = new ArrayList<Token>();
+        boolean operators = false;
+        try
+        {
+            final ParserTokenManager manager = new ParserTokenManager( new BufferCharStream( value ) );
+            Token token = manager.getNextToken();
+            while( token.kind != ParserConstants.EOF )
+            {
+                operators |= isPrecededByOperator( token );
+                tokens.add( token );
+                token = manager.getNextToken();
+            }
+            operators |= isPrecededByOperator( token );
+        }
+        catch( final TokenMgrError error )
+        {
+            return null;
+        }
+        final int[] indexes = new int[tokens.size()];
+        for( int i = 0; i < indexes.length; ++i )
+            indexes[i] = getParameterIndex( tokens.get( i ) );
+        return new Template( tokens.toArray( new Token[tokens.size()] ), indexes, operators );
+    }
+
+    private boolean isPrecededByOperator( final Token token )
+    {
+        for( Token special = token.specialToken; special != null; special = special.specialToken )
+            if( special.kind == ParserConstants.PREPROCESSOR )
+                return true;
+        return false;
+    }
+
+    private int getParameterIndex( final Token token )
+    {
+        if( parameters == null || token.kind != ParserConstants.ID )
+            return -1;
+        for( int i = 0; i < parameters.size(); ++i )
+            if( getParameterName( parameters.get( i ) ).equals( token.image ) )
+                return i;
+        return -1;
+    }
+
+    private String getParameterName( final String parameter )
+    {
+        if( parameter.equals( VARIADIC ) )
+            return VARIADIC_NAME;
+        if( parameter.endsWith( VARIADIC ) )
+            return parameter.substring( 0, parameter.length() - VARIADIC.length() ).trim();
+        return parameter;
+    }
+}
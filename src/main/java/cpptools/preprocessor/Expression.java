@@ -0,0 +1,411 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools.preprocessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates the expression of a conditional directive.
+ * <p>
+ * Identifiers are replaced by the value of the symbol they name, or by zero if there is no such symbol. An expression
+ * which cannot be evaluated, for instance because it invokes a macro, is rejected.
+ *
+ * @author Mathieu Champlon
+ */
+public final class Expression
+{
+    private static final int MAXIMUM_DEPTH = 16;
+    private static final String[] OPERATORS =
+    {
+            "||", "&&", "==", "!=", "<=", ">=", "<<", ">>", "!", "~", "*", "/", "%", "+", "-", "<", ">", "&", "^",
+            "|", "?", ":", "(", ")"
+    };
+    private static final String[][] PRECEDENCES =
+    {
+            {
+                "||"
+            },
+            {
+                "&&"
+            },
+            {
+                "|"
+            },
+            {
+                "^"
+            },
+            {
+                "&"
+            },
+            {
+                "==", "!="
+            },
+            {
+                "<", ">", "<=", ">="
+            },
+            {
+                "<<", ">>"
+            },
+            {
+                "+", "-"
+            },
+            {
+                "*", "/", "%"
+            }
+    };
+    private final List<String> tokens;
+    private final Map<String, String> symbols;
+    private final int depth;
+    private int index;
+    private int unevaluated;
+
+    private Expression( final String text, final Map<String, String> symbols, final int depth )
+    {
+        if( depth > MAXIMUM_DEPTH )
+            throw new IllegalArgumentException( "too many nested symbols in '" + text + "'" );
+        this.tokens = tokenize( text );
+        this.symbols = symbols;
+        this.depth = depth;
+    }
+
+    /**
+     * Evaluate an expression.
+     *
+     * @param text the expression
+     * @param symbols the values of the defined symbols, null values denoting macros
+     * @return the value of the expression
+     * @throws IllegalArgumentException if the expression cannot be evaluated
+     */
+    public static long evaluate( final String text, final Map<String, String> symbols )
+    {
+        if( text == null )
+            throw new IllegalArgumentException( "argument 'text' is null" );
+        if( symbols == null )
+            throw new IllegalArgumentException( "argument 'symbols' is null" );
+        return new Expression( text, symbols, 0 ).evaluate();
+    }
+
+    private long evaluate()
+    {
+        if( tokens.isEmpty() )
+            throw new IllegalArgumentException( "empty expression" );
+        final long result = conditional();
+        if( index != tokens.size() )
+            throw invalid();
+        return result;
+    }
+
+    private static List<String> tokenize( final String text )
+    {
+        final List<String> result = new ArrayList<String>();
+        int position = 0;
+        while( position < text.length() )
+        {
+            final char c = text.charAt( position );
+            if( Character.isWhitespace( c ) )
+                ++position;
+            else if( text.startsWith( "//", position ) )
+                position = text.length();
+            else if( text.startsWith( "/*", position ) )
+                position = skipComment( text, position );
+            else
+            {
+                final int end;
+                if( Character.isLetterOrDigit( c ) || c == '_' )
+                    end = skipWord( text, position );
+                else if( c == '\'' )
+                    end = skipCharacter( text, position );
+                else
+                    end = position + getOperator( text, position ).length();
+                result.add( text.substring( position, end ) );
+                position = end;
+            }
+        }
+        return result;
+    }
+
+    private static int skipComment( final String text, final int position )
+    {
+        final int end = text.indexOf( "*/", position + 2 );
+        if( end == -1 )
+            return text.length();
+        return end + 2;
+    }
+
+    private static int skipWord( final String text, final int position )
+    {
+        int end = position + 1;
+        while( end < text.length() && (Character.isLetterOrDigit( text.charAt( end ) ) || text.charAt( end ) == '_') )
+            ++end;
+        return end;
+    }
+
+    private static int skipCharacter( final String text, final int position )
+    {
+        int end = position + 1;
+        while( end < text.length() && text.charAt( end ) != '\'' )
+            end += text.charAt( end ) == '\\' ? 2 : 1;
+        return Math.min( end + 1, text.length() );
+    }
+
+    private static String getOperator( final String text, final int position )
+    {
+        for( final String operator : OPERATORS )
+            if( text.startsWith( operator, position ) )
+                return operator;
+        throw new IllegalArgumentException( "invalid character '" + text.charAt( position ) + "' in '" + text + "'" );
+    }
+
+    private IllegalArgumentException invalid()
+    {
+        return new IllegalArgumentException( "invalid expression '" + tokens + "'" );
+    }
+
+    private String peek()
+    {
+        if( index == tokens.size() )
+            return "";
+        return tokens.get( index );
+    }
+
+    private String next()
+    {
+        if( index == tokens.size() )
+            throw invalid();
+        return tokens.get( index++ );
+    }
+
+    private void expect( final String token )
+    {
+        if( !next().equals( token ) )
+            throw invalid();
+    }
+
+    private long conditional()
+    {
+        final long condition = binary( 0 );
+        if( !peek().equals( "?" ) )
+            return condition;
+        next();
+        final long first = operand( condition != 0 );
+        expect( ":" );
+        if( condition != 0 )
+        {
+            ++unevaluated;
+            conditional();
+            --unevaluated;
+            return first;
+        }
+        return conditional();
+    }
+
+    private long operand( final boolean evaluated )
+    {
+        if( evaluated )
+            return conditional();
+        ++unevaluated;
+        conditional();
+        --unevaluated;
+        return 0;
+    }
+
+    private long binary( final int level )
+    {
+        if( level == PRECEDENCES.length )
+            return unary();
+        long result = binary( level + 1 );
+        for( String operator = match( level ); operator != null; operator = match( level ) )
+        {
+            next();
+            final boolean skipped = operator.equals( "&&" ) && result == 0 || operator.equals( "||" ) && result != 0;
+            if( skipped )
+                ++unevaluated;
+            final long right = binary( level + 1 );
+            if( skipped )
+                --unevaluated;
+            result = apply( operator, result, right );
+        }
+        return result;
+    }
+
+    private String match( final int level )
+    {
+        final String token = peek();
+        for( final String operator : PRECEDENCES[level] )
+            if( operator.equals( token ) )
+                return operator;
+        return null;
+    }
+
+    private long apply( final String operator, final long left, final long right )
+    {
+        if( operator.equals( "||" ) )
+            return toLong( left != 0 || right != 0 );
+        if( operator.equals( "&&" ) )
+            return toLong( left != 0 && right != 0 );
+        if( operator.equals( "|" ) )
+            return left | right;
+        if( operator.equals( "^" ) )
+            return left ^ right;
+        if( operator.equals( "&" ) )
+            return left & right;
+        if( operator.equals( "==" ) )
+            return toLong( left == right );
+        if( operator.equals( "!=" ) )
+            return toLong( left != right );
+        if( operator.equals( "<" ) )
+            return toLong( left < right );
+        if( operator.equals( ">" ) )
+            return toLong( left > right );
+        if( operator.equals( "<=" ) )
+            return toLong( left <= right );
+        if( operator.equals( ">=" ) )
+            return toLong( left >= right );
+        if( operator.equals( "<<" ) )
+            return left << right;
+        if( operator.equals( ">>" ) )
+            return left >> right;
+        if( operator.equals( "+" ) )
+            return left + right;
+        if( operator.equals( "-" ) )
+            return left - right;
+        if( operator.equals( "*" ) )
+            return left * right;
+        return divide( operator, left, right );
+    }
+
+    private long divide( final String operator, final long left, final long right )
+    {
+        if( right == 0 )
+        {
+            if( unevaluated > 0 )
+                return 0;
+            throw new IllegalArgumentException( "division by zero in '" + tokens + "'" );
+        }
+        if( operator.equals( "/" ) )
+            return left / right;
+        return left % right;
+    }
+
+    private static long toLong( final boolean value )
+    {
+        if( value )
+            return 1;
+        return 0;
+    }
+
+    private long unary()
+    {
+        final String token = next();
+        if( token.equals( "!" ) )
+            return toLong( unary() == 0 );
+        if( token.equals( "~" ) )
+            return ~unary();
+        if( token.equals( "-" ) )
+            return -unary();
+        if( token.equals( "+" ) )
+            return unary();
+        if( token.equals( "(" ) )
+        {
+            final long result = conditional();
+            expect( ")" );
+            return result;
+        }
+        return primary( token );
+    }
+
+    private long primary( final String token )
+    {
+        final char c = token.charAt( 0 );
+        if( Character.isDigit( c ) )
+            return parseNumber( token );
+        if( c == '\'' )
+            return parseCharacter( token );
+        if( !Character.isLetter( c ) && c != '_' )
+            throw invalid();
+        if( token.equals( "defined" ) )
+            return toLong( symbols.containsKey( parseDefined() ) );
+        if( token.equals( "true" ) )
+            return 1;
+        if( token.equals( "false" ) )
+            return 0;
+        if( peek().equals( "(" ) || symbols.containsKey( token ) && symbols.get( token ) == null )
+            throw new IllegalArgumentException( "cannot evaluate macro '" + token + "'" );
+        if( !symbols.containsKey( token ) )
+            return 0;
+        return new Expression( symbols.get( token ), symbols, depth + 1 ).evaluate();
+    }
+
+    private String parseDefined()
+    {
+        final boolean parenthesis = peek().equals( "(" );
+        if( parenthesis )
+            next();
+        final String name = next();
+        if( !Character.isLetter( name.charAt( 0 ) ) && name.charAt( 0 ) != '_' )
+            throw invalid();
+        if( parenthesis )
+            expect( ")" );
+        return name;
+    }
+
+    private long parseNumber( final String token )
+    {
+        String number = token;
+        while( number.length() > 1 && "uUlL".indexOf( number.charAt( number.length() - 1 ) ) != -1 )
+            number = number.substring( 0, number.length() - 1 );
+        try
+        {
+            if( number.startsWith( "0x" ) || number.startsWith( "0X" ) )
+                return Long.parseLong( number.substring( 2 ), 16 );
+            if( number.startsWith( "0" ) )
+                return Long.parseLong( number, 8 );
+            return Long.parseLong( number );
+        }
+        catch( final NumberFormatException e )
+        {
+            throw new IllegalArgumentException( "invalid number '" + token + "'" );
+        }
+    }
+
+    private long parseCharacter( final String token )
+    {
+        if( token.length() == 3 && token.charAt( 2 ) == '\'' )
+            return token.charAt( 1 );
+        if( token.length() == 4 && token.charAt( 1 ) == '\\' && token.charAt( 3 ) == '\'' )
+        {
+            final int escape = "ntr0\\'\"".indexOf( token.charAt( 2 ) );
+            if( escape != -1 )
+                return "\n\t\r\0\\'\"".charAt( escape );
+        }
+        throw new IllegalArgumentException( "invalid character '" + token + "'" );
+    }
+}
@@ -28,13 +28,18 @@
 
 package cpptools.preprocessor;
 
-import java.util.Stack;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import cppast.ParserConstants;
 import cppast.Token;
 
 /**
  * Manages macro pre-processing.
+ * <p>
+ * The arguments are substituted to the parameters of the macro, whereas a macro without parameters simply replaces the
+ * whole invocation.
  *
  * @author Mathieu Champlon
  */
@@ -46,13 +51,27 @@ public final class Macro extends AbstractTokenFilter
      * Create a macro.
      *
      * @param provider the token provider to retrieve subsequent tokens
-     * @param buffer the token stack where to output filtered tokens
+     * @param buffer the token buffer where to output filtered tokens
      * @param name the define symbol
      * @param value the define value
      */
-    public Macro( final TokenProvider provider, final Stack<Token> buffer, final String name, final String value )
+    public Macro( final TokenProvider provider, final TokenBuffer buffer, final String name, final String value )
     {
-        super( buffer, name, value );
+        this( provider, buffer, name, check( name, new Definition( Collections.<String> emptyList(), value ) ) );
+    }
+
+    /**
+     * Create a macro from a definition already checked.
+     *
+     * @param provider the token provider to retrieve subsequent tokens
+     * @param buffer the token buffer where to output filtered tokens
+     * @param name the macro symbol
+     * @param definition the macro definition
+     */
+    public Macro( final TokenProvider provider, final TokenBuffer buffer, final String name,
+            final Definition definition )
+    {
+        super( buffer, name, definition );
         if( provider == null )
             throw new IllegalArgumentException( "parameter 'provider' is null" );
         this.provider = provider;
@@ -65,29 +84,38 @@ public final class Macro extends AbstractTokenFilter
     {
         final Token next = provider.next();
         if( next.kind == ParserConstants.LPARENTHESIS )
-            replace( token );
+            insert( token, collect() );
         else
             undo( token, next );
     }
 
-    private void replace( final Token token )
-    {
-        erase();
-        insert( token );
-    }
-
-    private void erase()
+    private List<List<Token>> collect()
     {
-        Token token = null;
+        final Definition definition = getDefinition();
+        final int count = definition.getParameterCount();
+        final List<List<Token>> arguments = new ArrayList<List<Token>>( count );
+        List<Token> argument = null;
+        if( count > 0 )
+            argument = new ArrayList<Token>();
         int level = 1;
-        do
+        for( Token token = provider.next(); token.kind != ParserConstants.EOF; token = provider.next() )
         {
-            token = provider.next();
             if( token.kind == ParserConstants.LPARENTHESIS )
                 ++level;
-            if( token.kind == ParserConstants.RPARENTHESIS )
-                --level;
+            else if( token.kind == ParserConstants.RPARENTHESIS && --level == 0 )
+                break;
+            else if( token.kind == ParserConstants.COMMA && level == 1 && argument != null
+                    && (!definition.isVariadic() || arguments.size() < count - 1) )
+            {
+                arguments.add( argument );
+                argument = new ArrayList<Token>();
+                continue;
+            }
+            if( argument != null )
+                argument.add( token );
         }
-        while( level != 0 || token.kind != ParserConstants.RPARENTHESIS );
+        if( argument != null )
+            arguments.add( argument );
+        return arguments;
     }
 }
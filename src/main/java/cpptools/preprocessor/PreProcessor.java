@@ -28,22 +28,32 @@
 
 package cpptools.preprocessor;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Stack;
-import cppast.JavaCharStream;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import cppast.CharStream;
+import cppast.ParserConstants;
 import cppast.Token;
 
 /**
  * Adapts the two token management systems.
+ * <p>
+ * Filters are indexed by symbol name so that only identifier tokens are looked up, whatever the number of defines
+ * and macros.
+ * <p>
+ * When expanding, the symbols defined by the directives of the sources are expanded as well, the symbols provided on
+ * the command line taking precedence.
  *
  * @author Mathieu Champlon
  */
 public final class PreProcessor implements TokenProvider
 {
-    private final List<TokenFilter> filters = new ArrayList<TokenFilter>();
-    private final Stack<Token> buffer = new Stack<Token>();
+    private final Map<String, TokenFilter> filters = new HashMap<String, TokenFilter>();
+    private final Map<Definition, TokenFilter> harvested = new IdentityHashMap<Definition, TokenFilter>();
+    private final TokenBuffer buffer = new TokenBuffer();
+    private final Conditions conditions;
     private final TokenProvider provider;
+    private final boolean expanding;
 
     /**
      * Create an adapter.
@@ -51,18 +61,49 @@ public final class PreProcessor implements TokenProvider
      * @param provider a token provider
      */
     public PreProcessor( final TokenProvider provider )
+    {
+        this( provider, false );
+    }
+
+    /**
+     * Create an adapter.
+     *
+     * @param provider a token provider
+     * @param conditional whether to skip the code disabled by conditional directives
+     */
+    public PreProcessor( final TokenProvider provider, final boolean conditional )
+    {
+        this( provider, conditional, false, null );
+    }
+
+    /**
+     * Create an adapter.
+     *
+     * @param provider a token provider
+     * @param conditional whether to skip the code disabled by conditional directives
+     * @param expanding whether to expand the symbols defined by the directives
+     * @param handler the include directive handler, null to ignore include directives
+     */
+    public PreProcessor( final TokenProvider provider, final boolean conditional, final boolean expanding,
+            final IncludeHandler handler )
     {
         if( provider == null )
             throw new IllegalArgumentException( "parameter 'provider' is null" );
-        this.provider = provider;
+        this.conditions = new Conditions( handler );
+        if( conditional || expanding || handler != null )
+            this.provider = new ConditionalTokenProvider( provider, conditions, conditional );
+        else
+            this.provider = provider;
+        this.expanding = expanding;
     }
 
     /**
      * {@inheritDoc}
      */
-    public void reset( final JavaCharStream stream )
+    public void reset( final CharStream stream )
     {
         buffer.clear();
+        harvested.clear();
         provider.reset( stream );
     }
 
@@ -71,28 +112,68 @@ public final class PreProcessor implements TokenProvider
      */
     public Token next()
     {
-        if( !buffer.empty() )
-            return buffer.pop();
-        final Token token = provider.next();
-        if( filter( token ) )
-            return attach( next(), token.specialToken );
-        return token;
+        Token specialToken = null;
+        while( buffer.isEmpty() )
+        {
+            final Token token = provider.next();
+            if( !filter( token ) )
+                return attach( token, specialToken );
+            specialToken = chain( token.specialToken, specialToken );
+        }
+        return attach( buffer.pop(), specialToken );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Token skip()
+    {
+        return provider.skip();
     }
 
     private boolean filter( final Token token )
     {
-        for( TokenFilter filter : filters )
-            if( filter.process( token ) )
-                return true;
-        return false;
+        if( token.kind != ParserConstants.ID )
+            return false;
+        final TokenFilter filter = getFilter( token.image );
+        return filter != null && filter.process( token );
+    }
+
+    private TokenFilter getFilter( final String name )
+    {
+        final TokenFilter filter = filters.get( name );
+        if( filter != null || !expanding )
+            return filter;
+        final Definition definition = conditions.getDefinition( name );
+        if( definition == null || !definition.isExpandable() || definition.hasOperators() )
+            return null;
+        if( !harvested.containsKey( definition ) )
+            harvested.put( definition, create( name, definition ) );
+        return harvested.get( definition );
+    }
+
+    private TokenFilter create( final String name, final Definition definition )
+    {
+        if( definition.isMacro() )
+            return new Macro( provider, buffer, name, definition );
+        return new Define( buffer, name, definition );
     }
 
     private Token attach( final Token token, final Token specialToken )
     {
-        findEnd( token ).specialToken = specialToken;
+        if( specialToken != null )
+            findEnd( token ).specialToken = specialToken;
         return token;
     }
 
+    private Token chain( final Token newer, final Token older )
+    {
+        if( newer == null )
+            return older;
+        findEnd( newer ).specialToken = older;
+        return newer;
+    }
+
     private Token findEnd( final Token token )
     {
         Token end = token;
@@ -109,7 +190,9 @@ public final class PreProcessor implements TokenProvider
      */
     public void addDefine( final String name, final String value )
     {
-        register( name, new Define( buffer, name, value ) );
+        final Define define = new Define( buffer, name, value );
+        register( name, define );
+        conditions.define( name, define.getDefinition() );
     }
 
     /**
@@ -120,14 +203,25 @@ public final class PreProcessor implements TokenProvider
      */
     public void addMacro( final String name, final String value )
     {
-        register( name, new Macro( provider, buffer, name, value ) );
+        final Macro macro = new Macro( provider, buffer, name, value );
+        register( name, macro );
+        conditions.define( name, macro.getDefinition() );
+    }
+
+    /**
+     * Retrieve the symbols defined so far, including the ones defined by the directives.
+     *
+     * @return the definitions of the symbols
+     */
+    public Map<String, Definition> getDefinitions()
+    {
+        return conditions.getDefinitions();
     }
 
     private void register( final String name, final TokenFilter macro )
     {
-        for( TokenFilter filter : filters )
-            if( filter.matches( name ) )
-                throw new RuntimeException( "macro redefinition '" + name + "'" );
-        filters.add( macro );
+        if( filters.containsKey( name ) )
+            throw new RuntimeException( "macro redefinition '" + name + "'" );
+        filters.put( name, macro );
     }
 }
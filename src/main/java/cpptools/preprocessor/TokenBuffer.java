@@ -26,68 +26,70 @@
  * POSSIBILITY OF SUCH DAMAGE.
  */
 
-package cppncss.counter;
+package cpptools.preprocessor;
 
-import cppast.AbstractVisitor;
-import cppast.AstConstructorDefinition;
-import cppast.AstDestructorDefinition;
-import cppast.AstFunctionDefinition;
-import cppast.SimpleNode;
+import cppast.Token;
 
 /**
- * Implements a visitor for functions.
+ * Holds the tokens pushed back into the token flow.
+ * <p>
+ * The last token pushed is the first one to be retrieved. A buffer is not synchronized and only allocates when it
+ * needs to grow.
  *
  * @author Mathieu Champlon
  */
-public final class FunctionVisitor extends AbstractVisitor
+public final class TokenBuffer
 {
-    private final Counter counter;
+    private static final int INITIAL_CAPACITY = 16;
+    private Token[] tokens = new Token[INITIAL_CAPACITY];
+    private int size;
 
     /**
-     * Create a function visitor.
+     * Push a token.
      *
-     * @param counter the counter to apply
+     * @param token the token
      */
-    public FunctionVisitor( final Counter counter )
+    public void push( final Token token )
     {
-        if( counter == null )
-            throw new IllegalArgumentException( "argument 'counter' is null" );
-        this.counter = counter;
+        if( size == tokens.length )
+        {
+            final Token[] grown = new Token[size * 2];
+            System.arraycopy( tokens, 0, grown, 0, size );
+            tokens = grown;
+        }
+        tokens[size++] = token;
     }
 
     /**
-     * {@inheritDoc}
+     * Retrieve and remove the last token pushed.
+     *
+     * @return the token
      */
-    public Object visit( final AstFunctionDefinition node, final Object data )
+    public Token pop()
     {
-        return process( node, data );
+        if( size == 0 )
+            throw new IllegalStateException( "token buffer is empty" );
+        final Token token = tokens[--size];
+        tokens[size] = null;
+        return token;
     }
 
     /**
-     * {@inheritDoc}
+     * Test whether the buffer is empty.
+     *
+     * @return whether there is no token left
      */
-    public Object visit( final AstConstructorDefinition node, final Object data )
+    public boolean isEmpty()
     {
-        return process( node, data );
+        return size == 0;
     }
 
     /**
-     * {@inheritDoc}
+     * Remove all the tokens.
      */
-    public Object visit( final AstDestructorDefinition node, final Object data )
-    {
-        return process( node, data );
-    }
-
-    private Object process( final SimpleNode node, final Object data )
-    {
-        node.accept( counter, data );
-        counter.flush( getFunctionName( node ), node.getFirstToken().beginLine );
-        return node.accept( this, data );
-    }
-
-    private String getFunctionName( final SimpleNode node )
+    public void clear()
     {
-        return (String)new FunctionNameExtractor().visit( node, null );
+        while( size > 0 )
+            tokens[--size] = null;
     }
 }
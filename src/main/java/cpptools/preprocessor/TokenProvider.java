@@ -28,7 +28,7 @@
 
 package cpptools.preprocessor;
 
-import cppast.JavaCharStream;
+import cppast.CharStream;
 import cppast.Token;
 
 /**
@@ -45,10 +45,17 @@ public interface TokenProvider
      */
     Token next();
 
+    /**
+     * Skip the inactive code up to the next directive.
+     *
+     * @return the directive or the end of file token
+     */
+    Token skip();
+
     /**
      * Reset the stream.
      *
      * @param stream the new stream
      */
-    void reset( JavaCharStream stream );
+    void reset( CharStream stream );
 }
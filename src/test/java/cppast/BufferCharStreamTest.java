@@ -0,0 +1,248 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id: $
+ */
+
+package cppast;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import junit.framework.TestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class BufferCharStreamTest extends TestCase
+{
+    private CharStream escaped( final String content )
+    {
+        return new BufferCharStream( Charset.forName( "UTF-8" ).encode( content ), true );
+    }
+
+    private void assertChar( final char expected, final int line, final int column, final char actual,
+            final CharStream stream )
+    {
+        assertEquals( expected, actual );
+        assertEquals( line, stream.getEndLine() );
+        assertEquals( column, stream.getEndColumn() );
+    }
+
+    public void testCharactersAreReadWithLinesAndColumns() throws IOException
+    {
+        final CharStream stream = new BufferCharStream( "ab\ncd" );
+        assertChar( 'a', 1, 1, stream.BeginToken(), stream );
+        assertChar( 'b', 1, 2, stream.readChar(), stream );
+        assertChar( '\n', 1, 3, stream.readChar(), stream );
+        assertChar( 'c', 2, 1, stream.readChar(), stream );
+        assertChar( 'd', 2, 2, stream.readChar(), stream );
+    }
+
+    public void testStreamCreatedFromReaderHoldsWholeContent() throws IOException
+    {
+        final StringBuilder builder = new StringBuilder();
+        for( int index = 0; index < 1000; ++index )
+            builder.append( '\u00e9' );
+        final CharStream stream = BufferCharStream.create( new StringReader( builder.append( 'a' ).toString() ) );
+        assertChar( '\u00e9', 1, 1, stream.BeginToken(), stream );
+        for( int index = 1; index < 1000; ++index )
+            stream.readChar();
+        assertChar( 'a', 1, 1001, stream.readChar(), stream );
+    }
+
+    public void testCarriageReturnLineFeedCountsAsOneLine() throws IOException
+    {
+        final CharStream stream = new BufferCharStream( "a\r\nb\rc" );
+        stream.BeginToken();
+        stream.readChar();
+        stream.readChar();
+        assertChar( 'b', 2, 1, stream.readChar(), stream );
+        stream.readChar();
+        assertChar( 'c', 3, 1, stream.readChar(), stream );
+    }
+
+    public void testTabulationAlignsColumn() throws IOException
+    {
+        final CharStream stream = new BufferCharStream( "\tab\tc" );
+        assertChar( '\t', 1, 8, stream.BeginToken(), stream );
+        assertChar( 'a', 1, 9, stream.readChar(), stream );
+        stream.readChar();
+        assertChar( '\t', 1, 16, stream.readChar(), stream );
+        assertChar( 'c', 1, 17, stream.readChar(), stream );
+    }
+
+    public void testBackupCharactersAreReadAgainByNextToken() throws IOException
+    {
+        final CharStream stream = new BufferCharStream( "abc" );
+        stream.BeginToken();
+        stream.readChar();
+        stream.readChar();
+        stream.backup( 1 );
+        assertEquals( "ab", stream.GetImage() );
+        assertEquals( 1, stream.getBeginColumn() );
+        assertEquals( 2, stream.getEndColumn() );
+        assertEquals( 'c', stream.BeginToken() );
+        assertEquals( "c", stream.GetImage() );
+        assertEquals( 3, stream.getBeginColumn() );
+    }
+
+    public void testSuffixIsTakenFromCurrentPosition() throws IOException
+    {
+        final CharStream stream = new BufferCharStream( "abcd" );
+        stream.BeginToken();
+        stream.readChar();
+        stream.readChar();
+        assertEquals( "bc", new String( stream.GetSuffix( 2 ) ) );
+    }
+
+    public void testEndOfStreamThrowsIOExceptionAndKeepsLastPosition() throws IOException
+    {
+        final CharStream stream = new BufferCharStream( "a\n" );
+        stream.BeginToken();
+        stream.readChar();
+        try
+        {
+            stream.BeginToken();
+            fail( "should have thrown" );
+        }
+        catch( final IOException e )
+        {
+            assertEquals( 1, stream.getBeginLine() );
+            assertEquals( 2, stream.getBeginColumn() );
+        }
+    }
+
+    public void testTokensLongerThanBufferAreRead() throws IOException
+    {
+        final StringBuilder builder = new StringBuilder();
+        for( int i = 0; i < 1000; ++i )
+            builder.append( (char)('a' + i % 26) );
+        final CharStream stream = new BufferCharStream( ' ' + builder.toString() );
+        stream.BeginToken();
+        stream.BeginToken();
+        for( int i = 1; i < builder.length(); ++i )
+            stream.readChar();
+        assertEquals( builder.toString(), stream.GetImage() );
+        assertEquals( 2, stream.getBeginColumn() );
+        assertEquals( 1001, stream.getEndColumn() );
+    }
+
+    public void testUtf8ContentIsDecoded() throws IOException
+    {
+        final CharStream stream = new BufferCharStream( "\u00e9\u20ac\ud83d\ude00" );
+        assertChar( '\u00e9', 1, 1, stream.BeginToken(), stream );
+        assertChar( '\u20ac', 1, 2, stream.readChar(), stream );
+        assertChar( '\ud83d', 1, 3, stream.readChar(), stream );
+        assertChar( '\ude00', 1, 4, stream.readChar(), stream );
+    }
+
+    public void testMalformedUtf8IsReplaced() throws IOException
+    {
+        final CharStream stream = new BufferCharStream( ByteBuffer.wrap( new byte[]
+        {
+                (byte)0xC3, 'a', (byte)0xFF
+        } ), false );
+        assertEquals( '\uFFFD', stream.BeginToken() );
+        assertEquals( 'a', stream.readChar() );
+        assertEquals( '\uFFFD', stream.readChar() );
+    }
+
+    public void testUnicodeEscapeIsDecoded() throws IOException
+    {
+        final CharStream stream = escaped( "\\u0041\\uu0062c" );
+        assertChar( 'A', 1, 1, stream.BeginToken(), stream );
+        assertChar( 'b', 1, 7, stream.readChar(), stream );
+        assertChar( 'c', 1, 14, stream.readChar(), stream );
+    }
+
+    public void testEvenNumberOfBackslashesIsNotAnEscape() throws IOException
+    {
+        final CharStream stream = escaped( "\\\\u0041" );
+        assertEquals( '\\', stream.BeginToken() );
+        assertEquals( '\\', stream.readChar() );
+        assertEquals( 'u', stream.readChar() );
+    }
+
+    public void testOddNumberOfBackslashesEndsWithAnEscape() throws IOException
+    {
+        final CharStream stream = escaped( "\\\\\\u0041" );
+        assertEquals( '\\', stream.BeginToken() );
+        assertEquals( '\\', stream.readChar() );
+        assertEquals( 'A', stream.readChar() );
+    }
+
+    public void testInvalidEscapeThrowsError() throws IOException
+    {
+        final CharStream stream = escaped( "\\utils" );
+        try
+        {
+            stream.BeginToken();
+            fail( "should have thrown" );
+        }
+        catch( final Error e )
+        {
+            assertEquals( "Invalid escape character at line 1 column 2.", e.getMessage() );
+        }
+    }
+
+    public void testUnicodeEscapeIsReadAsPlainCharactersByDefault() throws IOException
+    {
+        final CharStream stream = new BufferCharStream( "\\u0041" );
+        assertEquals( '\\', stream.BeginToken() );
+        assertEquals( 'u', stream.readChar() );
+        assertChar( '0', 1, 3, stream.readChar(), stream );
+    }
+
+    public void testFileIsRead() throws IOException
+    {
+        final File file = File.createTempFile( "cppncss", ".cpp" );
+        try
+        {
+            final OutputStream output = new FileOutputStream( file );
+            try
+            {
+                output.write( "int i;".getBytes( "UTF-8" ) );
+            }
+            finally
+            {
+                output.close();
+            }
+            final CharStream stream = new BufferCharStream( file, false );
+            assertEquals( 'i', stream.BeginToken() );
+            assertEquals( 'n', stream.readChar() );
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+}
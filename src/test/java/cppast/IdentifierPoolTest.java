@@ -0,0 +1,92 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppast;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class IdentifierPoolTest extends TestCase
+{
+    private String get( final IdentifierPool pool, final String identifier )
+    {
+        final char[] chars = ("  " + identifier + " ").toCharArray();
+        return pool.get( chars, 2, identifier.length() );
+    }
+
+    public void testSameIdentifierYieldsSameInstance()
+    {
+        final IdentifierPool pool = new IdentifierPool();
+        final String first = get( pool, "identifier" );
+        assertEquals( "identifier", first );
+        assertSame( first, get( pool, "identifier" ) );
+    }
+
+    public void testDifferentIdentifiersYieldDifferentStrings()
+    {
+        final IdentifierPool pool = new IdentifierPool();
+        assertEquals( "first", get( pool, "first" ) );
+        assertEquals( "second", get( pool, "second" ) );
+        assertEquals( "firs", get( pool, "firs" ) );
+    }
+
+    public void testIdentifiersAreCanonicalAcrossSharingPools()
+    {
+        final IdentifierPool root = new IdentifierPool();
+        final String identifier = get( new IdentifierPool( root ), "shared" );
+        assertSame( identifier, get( new IdentifierPool( root ), "shared" ) );
+        assertSame( identifier, get( root, "shared" ) );
+    }
+
+    public void testIndependentPoolsDoNotShareIdentifiers()
+    {
+        final String identifier = get( new IdentifierPool(), "independent" );
+        assertNotSame( identifier, get( new IdentifierPool(), "independent" ) );
+    }
+
+    public void testClearingForgetsSharedIdentifiers()
+    {
+        final IdentifierPool root = new IdentifierPool();
+        final IdentifierPool pool = new IdentifierPool( root );
+        final String identifier = get( pool, "cleared" );
+        root.clear();
+        assertNotSame( identifier, get( root, "cleared" ) );
+    }
+
+    public void testPoolGrowsToHoldManyIdentifiers()
+    {
+        final IdentifierPool pool = new IdentifierPool();
+        final String[] identifiers = new String[5000];
+        for( int i = 0; i < identifiers.length; ++i )
+            identifiers[i] = get( pool, "identifier" + i );
+        for( int i = 0; i < identifiers.length; ++i )
+            assertSame( identifiers[i], get( pool, "identifier" + i ) );
+    }
+}
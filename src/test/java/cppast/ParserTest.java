@@ -896,6 +896,24 @@ public class ParserTest extends TestCase
         parse( "char* str = \"\\x02\\x03\";" );
     }
 
+    public void testBackslashFollowedByUOutsideOfLiteralsIsValid() throws ParseException
+    {
+        parse( "#include \"..\\utils\\file.h\"\n// see ..\\utils\nint i;" );
+    }
+
+    public void testBackslashFollowedByUInStringIsInvalid() throws ParseException
+    {
+        try
+        {
+            parse( "char* str = \"..\\utils\";" );
+        }
+        catch( final TokenMgrError e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+
     public void testBackslashAtEndOfLineIsIgnored() throws ParseException
     {
         parse( "int i\\\n; int j\\\r;" );
@@ -0,0 +1,71 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id: $
+ */
+
+package cppast;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class ScopeTest extends TestCase
+{
+    public void testSubScopeCreatedConcurrentlyIsTheSameForAllThreads() throws InterruptedException
+    {
+        final Scope root = new Scope();
+        final Scope[][] scopes = new Scope[8][1000];
+        final Thread[] threads = new Thread[scopes.length];
+        for( int index = 0; index < threads.length; ++index )
+        {
+            final Scope[] created = scopes[index];
+            threads[index] = new Thread()
+            {
+                public void run()
+                {
+                    for( int scope = 0; scope < created.length; ++scope )
+                    {
+                        created[scope] = root.createScope( "my_scope" + scope % 10 ).createScope( "my_class" + scope );
+                        root.getScope( "my_scope" + (scope + 1) % 10 );
+                    }
+                }
+            };
+            threads[index].start();
+        }
+        for( final Thread thread : threads )
+            thread.join();
+        for( int scope = 0; scope < 1000; ++scope )
+        {
+            final Scope expected = root.getScope( "my_scope" + scope % 10 + "::my_class" + scope );
+            assertNotNull( expected );
+            for( int index = 0; index < scopes.length; ++index )
+                assertSame( expected, scopes[index][scope] );
+        }
+    }
+}
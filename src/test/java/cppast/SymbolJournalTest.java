@@ -0,0 +1,141 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * $Id: $
+ */
+
+
+package cppast;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class SymbolJournalTest extends TestCase
+{
+    private SymbolTable symbols;
+
+    protected void setUp()
+    {
+        symbols = new SymbolTable();
+    }
+
+    private SimpleNode parse( final String content, final SymbolJournal journal ) throws ParseException
+    {
+        final Parser parser = new Parser( new StringReader( content ) );
+        parser.record( journal );
+        return parser.translation_unit();
+    }
+
+    public void testReplayingJournalsRebindsNodesToSymbolTableScopes() throws ParseException
+    {
+        final SymbolJournal first = new SymbolJournal();
+        parse( "namespace n { class C {}; }", first );
+        final SymbolJournal second = new SymbolJournal();
+        final SimpleNode node = parse( "using namespace n;", second );
+        assertEquals( "C::f", node.resolve( "C::f" ) );
+        first.replay( symbols );
+        second.replay( symbols );
+        assertEquals( "n::C::f", node.resolve( "C::f" ) );
+    }
+
+    public void testReplayingJournalsInDifferentOrderYieldsDifferentScopes() throws ParseException
+    {
+        final SymbolJournal first = new SymbolJournal();
+        parse( "namespace n { class C {}; }", first );
+        final SymbolJournal second = new SymbolJournal();
+        final SimpleNode node = parse( "using namespace n;", second );
+        second.replay( symbols );
+        first.replay( symbols );
+        assertEquals( "C::f", node.resolve( "C::f" ) );
+    }
+
+    public void testClearedJournalDoesNotReplayAnything() throws ParseException
+    {
+        final SymbolJournal journal = new SymbolJournal();
+        parse( "namespace n { class C {}; }", journal );
+        journal.clear();
+        journal.replay( symbols );
+        assertEquals( "C::f", symbols.getCurrentScope().resolve( "C::f" ) );
+    }
+
+    public void testRestoredOperationsReplayScopesWithoutNodes() throws ParseException
+    {
+        final SymbolJournal first = new SymbolJournal();
+        parse( "namespace n { class C {}; }", first );
+        final SymbolJournal restored = new SymbolJournal();
+        restored.addOperations( first.getOperations() );
+        assertEquals( first.getOperations(), restored.getOperations() );
+        final SymbolJournal second = new SymbolJournal();
+        final SimpleNode node = parse( "using namespace n;", second );
+        restored.replay( symbols );
+        second.replay( symbols );
+        assertEquals( "n::C::f", node.resolve( "C::f" ) );
+    }
+
+    public void testAddingInvalidOperationThrowsException()
+    {
+        try
+        {
+            new SymbolJournal().addOperations( Arrays.asList( "?name" ) );
+        }
+        catch( IllegalArgumentException e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+
+    public void testInsertedOperationsAreReplayedFirst() throws ParseException
+    {
+        final SymbolJournal journal = new SymbolJournal();
+        parse( "class D : public n::C {};", journal );
+        final SymbolJournal header = new SymbolJournal();
+        parse( "namespace n { class C { class I {}; }; }", header );
+        journal.insertOperations( header.getOperations() );
+        journal.replay( symbols );
+        assertEquals( "n::C::I::f", symbols.getCurrentScope().resolve( "D::I::f" ) );
+    }
+
+    public void testUnboundJournalKeepsOperationsButNoLongerRebindsNodes() throws ParseException
+    {
+        final SymbolJournal first = new SymbolJournal();
+        parse( "namespace n { class C {}; }", first );
+        final SymbolJournal second = new SymbolJournal();
+        final SimpleNode node = parse( "using namespace n;", second );
+        final List<String> operations = second.getOperations();
+        second.unbind();
+        assertEquals( operations, second.getOperations() );
+        first.replay( symbols );
+        second.replay( symbols );
+        assertEquals( "C::f", node.resolve( "C::f" ) );
+    }
+}
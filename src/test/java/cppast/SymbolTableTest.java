@@ -108,4 +108,33 @@ public class SymbolTableTest extends TestCase
         symbols.extend( "my_scope1::my_scope2" );
         assertEquals( "my_scope1::my_scope2::my_scope3::Symbol", symbols.getCurrentScope().resolve( "my_scope3::Symbol" ) );
     }
+
+    public void testResolveQualifiedNameSearchesSegmentsUpThroughEnclosingScopes()
+    {
+        symbols.openScope( "my_scope1" );
+        symbols.openScope( "my_scope2" );
+        symbols.closeScope();
+        symbols.openScope( "my_scope3" );
+        assertEquals( "my_scope1::my_scope2::Symbol", symbols.getCurrentScope().resolve( "my_scope2::Symbol" ) );
+        assertEquals( "my_scope1::my_scope3::unknown::Symbol", symbols.getCurrentScope().resolve( "unknown::Symbol" ) );
+    }
+
+    public void testExtendingWithRootScopeName()
+    {
+        symbols.openScope( "my_scope1" );
+        symbols.openScope( "my_scope2" );
+        symbols.closeScopes();
+        symbols.openScope( "my_scope3" );
+        symbols.extend( "::my_scope1" );
+        assertEquals( "my_scope1::my_scope2::Symbol", symbols.getCurrentScope().resolve( "my_scope2::Symbol" ) );
+    }
+
+    public void testQualifiedNameOfScopeIsComputedOnce()
+    {
+        symbols.openScope( "my_scope1" );
+        symbols.openScope( "my_scope2" );
+        final Scope scope = symbols.getCurrentScope();
+        assertEquals( "my_scope1::my_scope2::", scope.toString() );
+        assertSame( scope.toString(), scope.toString() );
+    }
 }
@@ -184,4 +184,31 @@ public class XmlResultOutputTest extends EasyMockTestCase
         assertEquals( "my label", selectSingleNode( document, "/cppncss/measure/sum/@label" ).getTextContent() );
         assertEquals( "1242", selectSingleNode( document, "/cppncss/measure/sum/@value" ).getTextContent() );
     }
+
+    public void testSpecialCharactersAreEscaped() throws Exception
+    {
+        output.notify( "type", makeLabels() );
+        output.notify( "type", "operator<( const A&, \"b\" )", 1 );
+        output.notify( "type", "operator<( const A&, \"b\" )", 2 );
+        output.flush();
+        final Document document = parse();
+        assertEquals( "operator<( const A&, \"b\" )", selectSingleNode( document, "/cppncss/measure/item/@name" )
+                .getTextContent() );
+    }
+
+    public void testMeasuresAreWrittenInSeparateElements() throws Exception
+    {
+        output.notify( "first type", makeLabels() );
+        output.notify( "first type", "my item", 1 );
+        output.notify( "first type", "my item", 2 );
+        output.notify( "first type", "my label", 12f );
+        output.notify( "second type", makeLabels() );
+        output.notify( "second type", "my label", 1242L );
+        output.flush();
+        final Document document = parse();
+        assertEquals( 2, selectNodes( document, "/cppncss/measure" ).getLength() );
+        assertNotNull( selectSingleNode( document, "/cppncss/measure[@type='first type']/item" ) );
+        assertNotNull( selectSingleNode( document, "/cppncss/measure[@type='first type']/average" ) );
+        assertNotNull( selectSingleNode( document, "/cppncss/measure[@type='second type']/sum" ) );
+    }
 }
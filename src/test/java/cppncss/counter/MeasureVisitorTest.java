@@ -0,0 +1,124 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppncss.counter;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import cppast.ParseException;
+import cppast.Parser;
+import cpptools.EasyMockTestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class MeasureVisitorTest extends EasyMockTestCase
+{
+    /**
+     * Tested object.
+     */
+    private MeasureVisitor visitor;
+    /**
+     * Mock objects.
+     */
+    private CounterObserver functions;
+    private CounterObserver files;
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void setUp()
+    {
+        functions = createMock( CounterObserver.class );
+        files = createMock( CounterObserver.class );
+        visitor = new MeasureVisitor( Arrays.asList( Measurement.NCSS, Measurement.CCN, Measurement.FUNCTIONS ),
+                functions, files );
+        visitor.changed( "my file" );
+    }
+
+    private void visit( final String content ) throws ParseException
+    {
+        replay();
+        new Parser( new StringReader( content ) ).translation_unit().jjtAccept( visitor, null );
+    }
+
+    public void testCreatingWithNullMeasurementsThrowsException()
+    {
+        try
+        {
+            new MeasureVisitor( null, functions, files );
+        }
+        catch( IllegalArgumentException e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+
+    public void testEmptyFileIsMeasured() throws ParseException
+    {
+        files.notify( "NCSS", "my file", 1, 0 );
+        files.notify( "CCN", "my file", 1, 0 );
+        files.notify( "Functions", "my file", 1, 0 );
+        visit( "" );
+    }
+
+    public void testFunctionAndFileAreMeasuredInOneWalk() throws ParseException
+    {
+        functions.notify( "NCSS", "MyFunction()", 2, 2 );
+        functions.notify( "CCN", "MyFunction()", 2, 2 );
+        functions.notify( "Functions", "MyFunction()", 2, 1 );
+        files.notify( "NCSS", "my file", 1, 3 );
+        files.notify( "CCN", "my file", 1, 2 );
+        files.notify( "Functions", "my file", 1, 1 );
+        visit( "int i;\nvoid MyFunction() { if( i ); }" );
+    }
+
+    public void testNestedFunctionMeasuresAddUpToEnclosingFunction() throws ParseException
+    {
+        functions.notify( "NCSS", "MyFunction()", 1, 4 );
+        functions.notify( "CCN", "MyFunction()", 1, 3 );
+        functions.notify( "Functions", "MyFunction()", 1, 2 );
+        functions.notify( "NCSS", "MyClass::MyMethod()", 1, 2 );
+        functions.notify( "CCN", "MyClass::MyMethod()", 1, 2 );
+        functions.notify( "Functions", "MyClass::MyMethod()", 1, 1 );
+        files.notify( "NCSS", "my file", 1, 4 );
+        files.notify( "CCN", "my file", 1, 3 );
+        files.notify( "Functions", "my file", 1, 2 );
+        visit( "void MyFunction() { class MyClass{ void MyMethod() { if(i); } }; }" );
+    }
+
+    public void testOnlySelectedMeasurementsAreReportedInGivenOrder() throws ParseException
+    {
+        visitor = new MeasureVisitor( Arrays.asList( Measurement.CCN ), functions, files );
+        visitor.changed( "my file" );
+        functions.notify( "CCN", "MyFunction()", 1, 1 );
+        files.notify( "CCN", "my file", 1, 1 );
+        visit( "void MyFunction() {}" );
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppncss.measure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+import cpptools.Options;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class MeasureCollectorTest extends TestCase
+{
+    private final List<String> results = new ArrayList<String>();
+    private final MeasureObserver observer = new MeasureObserver()
+    {
+        public void notify( final List<String> labels )
+        {
+            results.add( labels.toString() );
+        }
+
+        public void notify( final String item, final int count )
+        {
+            results.add( item + "=" + count );
+        }
+    };
+
+    private MeasureCollector create( final String... args )
+    {
+        final MeasureCollector collector = new MeasureCollector( new Options( args ), observer );
+        collector.changed( "file" );
+        return collector;
+    }
+
+    public void testSecondaryMeasuresAreAttachedToTheirItem()
+    {
+        final MeasureCollector collector = create();
+        collector.notify( "NCSS", "item 1", 1, 3 );
+        collector.notify( "NCSS", "item 2", 2, 5 );
+        collector.notify( "CCN", "item 1", 1, 1 );
+        collector.notify( "CCN", "item 2", 2, 2 );
+        collector.flush();
+        assertEquals( Arrays.asList( "[NCSS, CCN]", "item 2 at file:2=5", "item 2 at file:2=2", "item 1 at file:1=3",
+                "item 1 at file:1=1" ), results );
+    }
+
+    public void testSecondaryMeasureIsNotAttachedToItemWithSameNameAtAnotherLocation()
+    {
+        final MeasureCollector collector = create();
+        collector.notify( "NCSS", "item", 1, 3 );
+        collector.notify( "NCSS", "item", 2, 5 );
+        collector.notify( "CCN", "item", 1, 1 );
+        collector.flush();
+        assertEquals( Arrays.asList( "[NCSS, CCN]", "item at file:2=5", "item at file:1=3", "item at file:1=1" ),
+                results );
+    }
+
+    public void testThresholdKeepsHighestMeasuresInInsertionOrderForTies()
+    {
+        final MeasureCollector collector = create( "-n=2" );
+        collector.notify( "NCSS", "item 1", 1, 3 );
+        collector.notify( "CCN", "item 1", 1, 1 );
+        collector.notify( "NCSS", "item 2", 2, 5 );
+        collector.notify( "CCN", "item 2", 2, 2 );
+        collector.notify( "NCSS", "item 3", 3, 3 );
+        collector.notify( "CCN", "item 3", 3, 4 );
+        collector.flush();
+        assertEquals( Arrays.asList( "[NCSS, CCN]", "item 2 at file:2=5", "item 2 at file:2=2", "item 1 at file:1=3",
+                "item 1 at file:1=1" ), results );
+    }
+
+    public void testZeroThresholdDiscardsAllMeasures()
+    {
+        final MeasureCollector collector = create( "-n=0" );
+        collector.notify( "NCSS", "item", 1, 3 );
+        collector.notify( "CCN", "item", 1, 1 );
+        collector.flush();
+        assertEquals( Arrays.asList( "[NCSS, CCN]" ), results );
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppncss.measure;
+
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class RankingTest extends TestCase
+{
+    private final Measure measure1 = new Measure( "item 1", "file", 1, 0 );
+    private final Measure measure2 = new Measure( "item 2", "file", 2, 0 );
+    private final Measure measure3 = new Measure( "item 3", "file", 3, 0 );
+
+    public void testUnboundedRankingSortsMeasuresByDecreasingValue()
+    {
+        final Ranking ranking = new Ranking( -1 );
+        assertNull( ranking.add( measure1, 1 ) );
+        assertNull( ranking.add( measure2, 3 ) );
+        assertNull( ranking.add( measure3, 2 ) );
+        assertEquals( Arrays.asList( measure2, measure3, measure1 ), ranking.getMeasures() );
+    }
+
+    public void testMeasuresWithSameValueAreRankedInInsertionOrder()
+    {
+        final Ranking ranking = new Ranking( -1 );
+        ranking.add( measure1, 2 );
+        ranking.add( measure2, 2 );
+        ranking.add( measure3, 2 );
+        assertEquals( Arrays.asList( measure1, measure2, measure3 ), ranking.getMeasures() );
+    }
+
+    public void testBoundedRankingEvictsLowestMeasure()
+    {
+        final Ranking ranking = new Ranking( 2 );
+        assertNull( ranking.add( measure1, 1 ) );
+        assertNull( ranking.add( measure2, 3 ) );
+        assertSame( measure1, ranking.add( measure3, 2 ) );
+        assertEquals( Arrays.asList( measure2, measure3 ), ranking.getMeasures() );
+    }
+
+    public void testBoundedRankingEvictsLatestMeasureInCaseOfTie()
+    {
+        final Ranking ranking = new Ranking( 1 );
+        assertNull( ranking.add( measure1, 2 ) );
+        assertSame( measure2, ranking.add( measure2, 2 ) );
+        assertEquals( Arrays.asList( measure1 ), ranking.getMeasures() );
+    }
+
+    public void testRankingWithZeroThresholdKeepsNothing()
+    {
+        final Ranking ranking = new Ranking( 0 );
+        assertSame( measure1, ranking.add( measure1, 1 ) );
+        assertTrue( ranking.getMeasures().isEmpty() );
+    }
+}
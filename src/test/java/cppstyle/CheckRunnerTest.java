@@ -0,0 +1,141 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle;
+
+import java.util.Properties;
+import org.easymock.EasyMock;
+import cpptools.EasyMockTestCase;
+import cpptools.EventHandler;
+import cpptools.FileContent;
+
+/**
+ * @author Mathieu Champlon
+ */
+public final class CheckRunnerTest extends EasyMockTestCase
+{
+    /**
+     * Mock objects.
+     */
+    private ResultOutput output;
+    private EventHandler handler;
+
+    protected void setUp() throws Exception
+    {
+        output = createMock( ResultOutput.class );
+        handler = createMock( EventHandler.class );
+    }
+
+    private CheckRunner create( final int threads ) throws Exception
+    {
+        final CheckRunner runner = new CheckRunner( threads, output, output, handler );
+        runner.register( "TabCharacter", new Properties() );
+        runner.register( "NewlineAtEndOfFile", new Properties() );
+        return runner;
+    }
+
+    private void check( final CheckRunner runner, final String filename, final String content )
+    {
+        runner.changed( filename );
+        runner.notify( new FileContent( filename, content.getBytes() ) );
+    }
+
+    public void testCreatingWithNullObserverThrowsException()
+    {
+        try
+        {
+            new CheckRunner( 1, null, output, handler );
+        }
+        catch( final IllegalArgumentException e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+
+    public void testRegisteringUnknownModuleThrowsException()
+    {
+        try
+        {
+            new CheckRunner( 1, output, output, handler ).register( "Unknown", new Properties() );
+        }
+        catch( final Exception e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+
+    public void testFailuresAreOutputOnceFileIsDone() throws Exception
+    {
+        final CheckRunner runner = create( 1 );
+        replay();
+        check( runner, "first", "\t\n" );
+        verify();
+        reset();
+        output.changed( "first" );
+        output.fail( "tab character", 1 );
+        replay();
+        check( runner, "second", "\n" );
+        verify();
+        reset();
+        output.changed( "second" );
+        replay();
+        runner.finish();
+    }
+
+    public void testFileWithoutContentIsOutputWithoutFailure() throws Exception
+    {
+        final CheckRunner runner = create( 1 );
+        output.changed( "file" );
+        replay();
+        runner.changed( "file" );
+        runner.finish();
+    }
+
+    public void testFailuresAreOutputInFilesOrderWhateverTheNumberOfThreads() throws Exception
+    {
+        final CheckRunner runner = create( 3 );
+        EasyMock.checkOrder( output, true );
+        final StringBuilder content = new StringBuilder();
+        for( int file = 0; file < 50; ++file )
+        {
+            output.changed( "file" + file );
+            output.fail( "tab character", file + 1 );
+            if( file % 2 == 0 )
+                output.fail( "missing new line at end of file" );
+        }
+        replay();
+        for( int file = 0; file < 50; ++file )
+        {
+            check( runner, "file" + file, content + "\t" + (file % 2 == 0 ? "" : "\n") );
+            content.append( '\n' );
+        }
+        runner.finish();
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle;
+
+import org.easymock.EasyMock;
+import cppstyle.checks.CheckListener;
+import cpptools.EasyMockTestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public final class FailureBufferTest extends EasyMockTestCase
+{
+    /**
+     * Tested object.
+     */
+    private FailureBuffer buffer;
+    /**
+     * Mock objects.
+     */
+    private CheckListener listener;
+
+    protected void setUp() throws Exception
+    {
+        buffer = new FailureBuffer();
+        listener = createMock( CheckListener.class );
+    }
+
+    public void testFailuresAreReplayedInOrder()
+    {
+        EasyMock.checkOrder( listener, true );
+        buffer.fail( "first", 3 );
+        buffer.fail( "second" );
+        buffer.fail( "third", 1, 2 );
+        listener.fail( "first", 3 );
+        listener.fail( "second" );
+        listener.fail( "third", 1, 2 );
+        replay();
+        buffer.replay( listener );
+    }
+
+    public void testTakingFailuresEmptiesBuffer()
+    {
+        buffer.fail( "reason", 1 );
+        final FailureBuffer taken = buffer.take();
+        listener.fail( "reason", 1 );
+        replay();
+        buffer.replay( listener );
+        taken.replay( listener );
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import junit.framework.TestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class XmlResultOutputTest extends TestCase
+{
+    private static final String NEWLINE = System.getProperty( "line.separator" );
+    private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+    private XmlResultOutput output;
+    private ByteArrayOutputStream stream;
+
+    protected void setUp() throws Exception
+    {
+        stream = new ByteArrayOutputStream();
+        output = new XmlResultOutput( new PrintStream( stream ) );
+    }
+
+    private String lines( final String... lines )
+    {
+        final StringBuilder builder = new StringBuilder();
+        for( final String line : lines )
+            builder.append( line ).append( NEWLINE );
+        return builder.toString();
+    }
+
+    public void testNoNotificationGeneratesEmptyRootElement() throws Exception
+    {
+        output.flush();
+        assertEquals( lines( HEADER + "<cppstyle/>" ), stream.toString( "UTF-8" ) );
+    }
+
+    public void testFileWithoutErrorGeneratesEmptyFileElement() throws Exception
+    {
+        output.changed( "file" );
+        output.flush();
+        assertEquals( lines( HEADER + "<cppstyle>", "  <file name=\"file\"/>", "</cppstyle>" ), stream.toString( "UTF-8" ) );
+    }
+
+    public void testErrorsAreGroupedInFileElement() throws Exception
+    {
+        output.changed( "file" );
+        output.fail( "reason", 12 );
+        output.fail( "<reason>", 13, 14 );
+        output.fail( "\"reason\"" );
+        output.changed( "other file" );
+        output.flush();
+        assertEquals( lines( HEADER + "<cppstyle>", "  <file name=\"file\">",
+                "    <error line=\"12\" message=\"reason\"/>", "    <error line=\"13-14\" message=\"&lt;reason&gt;\"/>",
+                "    <error message=\"&quot;reason&quot;\"/>", "  </file>", "  <file name=\"other file\"/>", "</cppstyle>" ),
+                stream.toString( "UTF-8" ) );
+    }
+
+    public void testFileBlockIsWrittenWhenNextFileIsProcessed() throws Exception
+    {
+        output.changed( "file" );
+        output.fail( "reason", 12 );
+        output.changed( "other file" );
+        assertEquals( lines( HEADER + "<cppstyle>", "  <file name=\"file\">",
+                "    <error line=\"12\" message=\"reason\"/>", "  </file>" ), stream.toString( "UTF-8" ) );
+    }
+}
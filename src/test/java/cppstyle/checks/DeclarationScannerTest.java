@@ -0,0 +1,89 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle.checks;
+
+import static org.easymock.EasyMock.expect;
+import java.util.Properties;
+import org.easymock.EasyMock;
+import cppast.BufferCharStream;
+import cppast.ParseException;
+import cppast.Parser;
+import cpptools.EasyMockTestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public final class DeclarationScannerTest extends EasyMockTestCase
+{
+    /**
+     * Tested object.
+     */
+    private DeclarationScanner scanner;
+    /**
+     * Mock objects.
+     */
+    private CheckListener listener;
+    private Properties properties;
+
+    protected void setUp() throws Exception
+    {
+        scanner = new DeclarationScanner();
+        listener = createMock( CheckListener.class );
+        properties = createMock( Properties.class );
+    }
+
+    public void testRegisteringNullObserverThrowsException()
+    {
+        try
+        {
+            scanner.register( null );
+        }
+        catch( final IllegalArgumentException e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+
+    public void testObserversAreNotifiedInRegistrationOrder() throws ParseException
+    {
+        expect( properties.getProperty( "format" ) ).andReturn( "^[a-z]+$" ).times( 2 );
+        replay();
+        scanner.register( new VariableNameCheck( listener, properties ) );
+        scanner.register( new FunctionNameCheck( listener, properties ) );
+        verify();
+        reset();
+        EasyMock.checkOrder( listener, true );
+        listener.fail( "invalid variable name", 2 );
+        listener.fail( "invalid variable name", 3 );
+        listener.fail( "invalid function name", 1 );
+        replay();
+        scanner.visit( new Parser( new BufferCharStream( "void F()\n{ int A;\nint B; }" ) ).translation_unit(), null );
+    }
+}
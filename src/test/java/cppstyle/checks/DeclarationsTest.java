@@ -0,0 +1,125 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle.checks;
+
+import java.util.List;
+import junit.framework.TestCase;
+import cppast.BufferCharStream;
+import cppast.ParseException;
+import cppast.Parser;
+import cppast.Token;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class DeclarationsTest extends TestCase
+{
+    /**
+     * Tested object.
+     */
+    private Declarations declarations;
+
+    protected void setUp() throws Exception
+    {
+        declarations = new Declarations();
+    }
+
+    private void scan( final String data ) throws ParseException
+    {
+        declarations.scan( new Parser( new BufferCharStream( data ) ).translation_unit() );
+    }
+
+    private void assertNames( final String expected, final List<Token> names )
+    {
+        final StringBuilder actual = new StringBuilder();
+        for( final Token name : names )
+            actual.append( actual.length() == 0 ? "" : " " ).append( name.image );
+        assertEquals( expected, actual.toString() );
+    }
+
+    public void testScanningNullRootThrowsException()
+    {
+        try
+        {
+            declarations.scan( null );
+        }
+        catch( final IllegalArgumentException e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+
+    public void testFunctionSignatureAndBodyNamesAreToldApart() throws ParseException
+    {
+        scan( "void f( int p ) { int v; typedef int t; static const int c = 0; }" );
+        assertNames( "f", declarations.getFunctions() );
+        assertNames( "p", declarations.getParameters() );
+        assertNames( "v", declarations.getVariables() );
+        assertNames( "", declarations.getMembers() );
+    }
+
+    public void testMemberNamesExcludeStaticAndTypedef() throws ParseException
+    {
+        scan( "namespace n { class C { int m; static int s; typedef int t; void f( int p ); }; }" );
+        assertNames( "n", declarations.getNamespaces() );
+        assertNames( "C", declarations.getTypes() );
+        assertNames( "m", declarations.getMembers() );
+        assertNames( "f", declarations.getFunctions() );
+        assertNames( "p", declarations.getParameters() );
+    }
+
+    public void testOperatorIsNotAFunctionName() throws ParseException
+    {
+        scan( "class C { bool operator==( const C& rhs ) const; };" );
+        assertNames( "", declarations.getFunctions() );
+        assertNames( "rhs", declarations.getParameters() );
+    }
+
+    public void testVariablesOfLocalClassFunctionsComeAfterEnclosingBodyVariables() throws ParseException
+    {
+        scan( "void f() { int first; class L { void m() { int inner; } }; int last; }" );
+        assertNames( "first last inner", declarations.getVariables() );
+    }
+
+    public void testMembersOfNestedClassComeAfterEnclosingDeclarationMembers() throws ParseException
+    {
+        scan( "struct S { struct { int inner; } outer; };" );
+        assertNames( "outer inner", declarations.getMembers() );
+    }
+
+    public void testScanningForgetsPreviousNames() throws ParseException
+    {
+        scan( "void f() { int v; }" );
+        scan( "class C {};" );
+        assertNames( "", declarations.getFunctions() );
+        assertNames( "", declarations.getVariables() );
+        assertNames( "C", declarations.getTypes() );
+    }
+}
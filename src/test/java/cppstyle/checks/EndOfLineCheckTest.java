@@ -120,4 +120,11 @@ public final class EndOfLineCheckTest extends EasyMockTestCase
         listener.fail( "invalid end of line", 2 );
         check( ";\r\n\r", null );
     }
+
+    public void testEachStrayEndOfLineGeneratesFailure()
+    {
+        listener.fail( "invalid end of line", 1 );
+        listener.fail( "invalid end of line", 2 );
+        check( ";\n;\r;\r\n", "crlf" );
+    }
 }
@@ -0,0 +1,81 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle.checks;
+
+import org.easymock.EasyMock;
+import cpptools.EasyMockTestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public final class LineScannerTest extends EasyMockTestCase
+{
+    /**
+     * Tested object.
+     */
+    private LineScanner scanner;
+    /**
+     * Mock objects.
+     */
+    private CheckListener listener;
+
+    protected void setUp() throws Exception
+    {
+        scanner = new LineScanner();
+        listener = createMock( CheckListener.class );
+    }
+
+    public void testRegisteringNullObserverThrowsException()
+    {
+        try
+        {
+            scanner.register( null );
+        }
+        catch( final IllegalArgumentException e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+
+    public void testObserversAreNotifiedInRegistrationOrder()
+    {
+        scanner.register( new WhitespaceAtEndOfLineCheck( listener, null ) );
+        scanner.register( new TabCharacterCheck( listener, null ) );
+        scanner.register( new NewlineAtEndOfFileCheck( listener, null ) );
+        EasyMock.checkOrder( listener, true );
+        listener.fail( "whitespace at end of line", 1 );
+        listener.fail( "whitespace at end of line", 3 );
+        listener.fail( "tab character", 1 );
+        listener.fail( "tab character", 2 );
+        listener.fail( "missing new line at end of file" );
+        replay();
+        scanner.notify( "a\t\n\tb\nc " );
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle.checks;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class LinesTest extends TestCase
+{
+    /**
+     * Tested object.
+     */
+    private Lines lines;
+
+    protected void setUp() throws Exception
+    {
+        lines = new Lines();
+    }
+
+    public void testScanningNullContentThrowsException()
+    {
+        try
+        {
+            lines.scan( null );
+        }
+        catch( final IllegalArgumentException e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+
+    public void testEmptyContentIsOneEmptyLine()
+    {
+        lines.scan( "" );
+        assertEquals( 1, lines.getCount() );
+        assertTrue( lines.isEmpty( 0 ) );
+        assertEquals( "", lines.getTerminator( 0 ) );
+    }
+
+    public void testLinesAreSeparatedByAnyTerminator()
+    {
+        lines.scan( "a\r\nbc\rd\n" );
+        assertEquals( 4, lines.getCount() );
+        assertEquals( 0, lines.getStart( 0 ) );
+        assertEquals( 1, lines.getEnd( 0 ) );
+        assertEquals( "\r\n", lines.getTerminator( 0 ) );
+        assertEquals( 3, lines.getStart( 1 ) );
+        assertEquals( 5, lines.getEnd( 1 ) );
+        assertEquals( "\r", lines.getTerminator( 1 ) );
+        assertEquals( 6, lines.getStart( 2 ) );
+        assertEquals( 7, lines.getEnd( 2 ) );
+        assertEquals( "\n", lines.getTerminator( 2 ) );
+        assertTrue( lines.isEmpty( 3 ) );
+        assertEquals( "", lines.getTerminator( 3 ) );
+    }
+
+    public void testLfBeforeCrIsTwoTerminators()
+    {
+        lines.scan( "\n\r" );
+        assertEquals( 3, lines.getCount() );
+        assertEquals( "\n", lines.getTerminator( 0 ) );
+        assertEquals( "\r", lines.getTerminator( 1 ) );
+    }
+
+    public void testFirstTabCharacterOfEachLineIsRecorded()
+    {
+        lines.scan( "a\tb\t\nc\n\t" );
+        assertEquals( 1, lines.getTab( 0 ) );
+        assertEquals( -1, lines.getTab( 1 ) );
+        assertEquals( 7, lines.getTab( 2 ) );
+    }
+
+    public void testTrailingWhitespaceExcludesTerminator()
+    {
+        lines.scan( "a \r\nb\t\nc\n\n" );
+        assertTrue( lines.hasTrailingWhitespace( 0 ) );
+        assertTrue( lines.hasTrailingWhitespace( 1 ) );
+        assertFalse( lines.hasTrailingWhitespace( 2 ) );
+        assertFalse( lines.hasTrailingWhitespace( 3 ) );
+    }
+
+    public void testLineMatchesOnlyWholeString()
+    {
+        lines.scan( "abc\nab" );
+        assertTrue( lines.matches( 0, "abc" ) );
+        assertFalse( lines.matches( 0, "ab" ) );
+        assertFalse( lines.matches( 0, "abcd" ) );
+        assertTrue( lines.matches( 1, "ab" ) );
+    }
+
+    public void testContainsOnlyActualTerminators()
+    {
+        lines.scan( "a\r\nb\n" );
+        assertTrue( lines.contains( "\r\n" ) );
+        assertTrue( lines.contains( "\n" ) );
+        assertFalse( lines.contains( "\r" ) );
+    }
+
+    public void testStorageIsReusedAndGrown()
+    {
+        final StringBuilder builder = new StringBuilder();
+        for( int line = 0; line < 1000; ++line )
+            builder.append( line ).append( '\n' );
+        lines.scan( builder.toString() );
+        assertEquals( 1001, lines.getCount() );
+        assertTrue( lines.matches( 999, "999" ) );
+        lines.scan( "a" );
+        assertEquals( 1, lines.getCount() );
+        assertTrue( lines.matches( 0, "a" ) );
+    }
+}
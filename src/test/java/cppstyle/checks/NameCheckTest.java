@@ -0,0 +1,129 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cppstyle.checks;
+
+import static org.easymock.EasyMock.expect;
+import java.util.Properties;
+import cppast.Token;
+import cpptools.EasyMockTestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public final class NameCheckTest extends EasyMockTestCase
+{
+    /**
+     * Mock objects.
+     */
+    private CheckListener listener;
+    private Properties properties;
+
+    protected void setUp() throws Exception
+    {
+        listener = createMock( CheckListener.class );
+        properties = createMock( Properties.class );
+    }
+
+    private NameCheck create( final String format )
+    {
+        expect( properties.getProperty( "format" ) ).andReturn( format );
+        replay();
+        return new NameCheck( listener, properties, "some" );
+    }
+
+    private Token token( final String image, final int line )
+    {
+        final Token token = new Token();
+        token.image = image;
+        token.beginLine = line;
+        return token;
+    }
+
+    public void testInvalidFormatThrows()
+    {
+        expect( properties.getProperty( "format" ) ).andReturn( "[a-z" );
+        replay();
+        try
+        {
+            new NameCheck( listener, properties, "some" );
+        }
+        catch( final IllegalArgumentException e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+
+    public void testFormatMustMatchWholeName()
+    {
+        listener.fail( "invalid some name", 1 );
+        final NameCheck check = create( "[a-z]+" );
+        check.verify( token( "name1", 1 ) );
+        check.verify( token( "name", 2 ) );
+    }
+
+    public void testRepeatedInvalidNameFailsEachTime()
+    {
+        listener.fail( "invalid some name", 1 );
+        listener.fail( "invalid some name", 2 );
+        final NameCheck check = create( "[a-z]+" );
+        check.verify( token( "Name", 1 ) );
+        check.verify( token( "Name", 2 ) );
+    }
+
+    public void testEvictedNameIsMatchedAgain()
+    {
+        listener.fail( "invalid some name", 1 );
+        listener.fail( "invalid some name", 3 );
+        expect( properties.getProperty( "format" ) ).andReturn( "[a-z]+" );
+        replay();
+        final NameCheck check = new NameCheck( listener, properties, "some", 2 );
+        check.verify( token( "Name", 1 ) );
+        assertTrue( check.isRemembered( "Name" ) );
+        check.verify( token( "first", 2 ) );
+        check.verify( token( "second", 2 ) );
+        assertFalse( check.isRemembered( "Name" ) );
+        check.verify( token( "Name", 3 ) );
+        assertTrue( check.isRemembered( "Name" ) );
+    }
+
+    public void testLeastRecentlyCheckedNameIsEvictedFirst()
+    {
+        expect( properties.getProperty( "format" ) ).andReturn( "[a-z]+" );
+        replay();
+        final NameCheck check = new NameCheck( listener, properties, "some", 2 );
+        check.verify( token( "first", 1 ) );
+        check.verify( token( "second", 2 ) );
+        check.verify( token( "first", 3 ) );
+        check.verify( token( "third", 4 ) );
+        assertTrue( check.isRemembered( "first" ) );
+        assertFalse( check.isRemembered( "second" ) );
+        assertTrue( check.isRemembered( "third" ) );
+    }
+}
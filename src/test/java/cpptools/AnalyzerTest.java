@@ -0,0 +1,356 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+import cppast.AbstractVisitor;
+import cppast.AstTranslationUnit;
+import cppast.ParserConstants;
+import cppast.Token;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class AnalyzerTest extends TestCase
+{
+    private static final int FILES = 4;
+    private static final int FUNCTIONS = 300;
+    private File directory;
+
+    protected void setUp() throws IOException
+    {
+        directory = File.createTempFile( "cppncss", "" );
+        directory.delete();
+        directory.mkdirs();
+        for( int index = 0; index < FILES; ++index )
+            generate( new File( directory, "file" + index + ".cpp" ) );
+    }
+
+    protected void tearDown()
+    {
+        final File[] children = directory.listFiles();
+        if( children != null )
+            for( final File child : children )
+                child.delete();
+        directory.delete();
+    }
+
+    private void generate( final File file ) throws IOException
+    {
+        final Writer writer = new FileWriter( file );
+        try
+        {
+            for( int index = 0; index < FUNCTIONS; ++index )
+            {
+                writer.write( "/**\n * Some documentation for function number " + index + ".\n */\n" );
+                writer.write( "int function" + index + "( int parameter )\n{\n" );
+                writer.write( "    if( parameter > " + index + " ) // a comment\n" );
+                writer.write( "        return parameter * " + index + ";\n    return 0;\n}\n" );
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    /**
+     * Keeps track of the files processed and of the trees walked, counting the ones still reachable when the next file
+     * gets processed.
+     */
+    private static final class Tracker extends AbstractVisitor implements ContentObserver
+    {
+        private final List<Reference<AstTranslationUnit>> trees = new ArrayList<Reference<AstTranslationUnit>>();
+        private final List<String> events = new ArrayList<String>();
+        private final List<Reference<String>> identifiers = new ArrayList<Reference<String>>();
+        private int retained;
+
+        public Object visit( final AstTranslationUnit node, final Object data )
+        {
+            events.add( "walked" );
+            trees.add( new WeakReference<AstTranslationUnit>( node ) );
+            Token token = node.getFirstToken();
+            while( token.kind != ParserConstants.ID )
+                token = token.next;
+            identifiers.add( new WeakReference<String>( token.image ) );
+            return super.visit( node, data );
+        }
+
+        public void changed( final String filename )
+        {
+            events.add( "changed " + filename );
+            for( final Reference<AstTranslationUnit> tree : trees )
+                if( !isCollected( tree ) )
+                    ++retained;
+        }
+
+        public void notify( final FileContent content )
+        {
+            assertTrue( content.getText().startsWith( "/**" ) );
+            events.add( "read " + content.getFilename() );
+        }
+
+        private boolean isCollected( final Reference<?> reference )
+        {
+            for( int attempt = 0; attempt < 10 && reference.get() != null; ++attempt )
+                System.gc();
+            return reference.get() == null;
+        }
+    }
+
+    private Tracker analyze( final String... args ) throws IOException
+    {
+        return analyze( null, args );
+    }
+
+    private Tracker analyze( final ResultCache cache, final String... args ) throws IOException
+    {
+        final Tracker tracker = new Tracker();
+        final List<String> arguments = new ArrayList<String>();
+        for( final String arg : args )
+            arguments.add( arg );
+        arguments.add( directory.getPath() );
+        new Analyzer( new Options( arguments.toArray( new String[arguments.size()] ) ), tracker, tracker,
+                new EventHandler()
+                {
+                    public void started()
+                    {
+                    }
+
+                    public void finished( final int parsed, final int total )
+                    {
+                        assertEquals( total, parsed );
+                    }
+
+                    public void error( final String filename, final Throwable throwable, final String reason )
+                    {
+                        fail( reason );
+                    }
+
+                    public void display( final String filename, final int line, final int column )
+                    {
+                    }
+                }, cache ).run();
+        return tracker;
+    }
+
+    public void testThreadsDefaultToOne()
+    {
+        assertEquals( 1, Analyzer.getThreads( new Options( new String[0] ) ) );
+        assertEquals( 3, Analyzer.getThreads( new Options( new String[]
+        {
+            "-j=3"
+        } ) ) );
+    }
+
+    public void testInvalidThreadsThrowException()
+    {
+        for( final String value : new String[]
+        {
+                "-j=0", "-j=-2", "-j=abc"
+        } )
+            try
+            {
+                Analyzer.getThreads( new Options( new String[]
+                {
+                    value
+                } ) );
+                fail( "should have thrown for " + value );
+            }
+            catch( final IllegalArgumentException e )
+            {
+                assertEquals( "invalid -j argument, must be at least 1", e.getMessage() );
+            }
+    }
+
+    public void testNoWalkedTreeIsReachableWhenNextFileIsProcessed() throws IOException
+    {
+        final Tracker tracker = analyze();
+        assertEquals( FILES, tracker.trees.size() );
+        assertEquals( 0, tracker.retained );
+    }
+
+    public void testNoWalkedTreeIsReachableWhenNextFileIsProcessedConcurrently() throws IOException
+    {
+        final Tracker tracker = analyze( "-j=2" );
+        assertEquals( FILES, tracker.trees.size() );
+        assertEquals( 0, tracker.retained );
+    }
+
+    public void testIdentifiersAreReleasedOnceAnalysisIsOver() throws IOException
+    {
+        final Tracker tracker = analyze( "-j=2" );
+        assertEquals( FILES, tracker.identifiers.size() );
+        for( final Reference<String> identifier : tracker.identifiers )
+            assertTrue( tracker.isCollected( identifier ) );
+    }
+
+    public void testEachFileContentIsProvidedOnceBetweenFileChangeAndTreeWalk() throws IOException
+    {
+        final Tracker tracker = analyze( "-j=2" );
+        assertEquals( FILES * 3, tracker.events.size() );
+        for( int index = 0; index < FILES; ++index )
+        {
+            final String filename = tracker.events.get( index * 3 ).substring( "changed ".length() );
+            assertEquals( "read " + filename, tracker.events.get( index * 3 + 1 ) );
+            assertEquals( "walked", tracker.events.get( index * 3 + 2 ) );
+        }
+    }
+
+    private ResultCache createCache( final File file )
+    {
+        return new ResultCache( file.getPath(), "settings", new CacheObserver()
+        {
+            public void record( final List<String> records )
+            {
+            }
+
+            public void replay( final List<String> records )
+            {
+            }
+        } );
+    }
+
+    private File generateListedFirst() throws IOException
+    {
+        for( int index = 0;; ++index )
+        {
+            final File file = new File( directory, "new" + index + ".cpp" );
+            generate( file );
+            final List<String> names = Arrays.asList( directory.list() );
+            if( !names.get( names.size() - 1 ).equals( file.getName() ) )
+                return file;
+            file.delete();
+        }
+    }
+
+    private List<String> getChangedFiles( final Tracker tracker )
+    {
+        final List<String> result = new ArrayList<String>();
+        for( final String event : tracker.events )
+            if( event.startsWith( "changed " ) )
+                result.add( event );
+        return result;
+    }
+
+    public void testIncrementalRunProcessesNewFilesInFullRunOrder() throws IOException
+    {
+        final File cache = File.createTempFile( "cppncss", ".cache" );
+        final File changes = File.createTempFile( "cppncss", ".txt" );
+        try
+        {
+            cache.delete();
+            final ResultCache full = createCache( cache );
+            analyze( full );
+            full.save();
+            final File added = generateListedFirst();
+            final Writer writer = new FileWriter( changes );
+            try
+            {
+                writer.write( added.getPath() + "\n" );
+            }
+            finally
+            {
+                writer.close();
+            }
+            final Tracker tracker = analyze( createCache( cache ), "-u=" + changes.getPath() );
+            assertEquals( FILES + 1, getChangedFiles( tracker ).size() );
+            assertEquals( getChangedFiles( analyze() ), getChangedFiles( tracker ) );
+        }
+        finally
+        {
+            cache.delete();
+            changes.delete();
+        }
+    }
+
+    private void write( final File file, final String content ) throws IOException
+    {
+        final Writer writer = new FileWriter( file );
+        try
+        {
+            writer.write( content );
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    private int count( final Tracker tracker, final String event )
+    {
+        int result = 0;
+        for( final String value : tracker.events )
+            if( value.equals( event ) )
+                ++result;
+        return result;
+    }
+
+    public void testFilesIncludingAChangedHeaderAreParsedAgain() throws IOException
+    {
+        final File cache = File.createTempFile( "cppncss", ".cache" );
+        final File include = File.createTempFile( "cppncss", "" );
+        final File header = new File( include, "header.h" );
+        try
+        {
+            cache.delete();
+            include.delete();
+            include.mkdirs();
+            write( header, "#define VALUE 1\n" );
+            write( new File( directory, "file0.cpp" ), "/**/\n#include <header.h>\n"
+                    + "int function() { if( VALUE ) return 1; return 0; }\n" );
+            final String argument = "-I" + include.getPath();
+            final ResultCache full = createCache( cache );
+            assertEquals( FILES, count( analyze( full, argument ), "walked" ) );
+            full.save();
+            final ResultCache unchanged = createCache( cache );
+            assertEquals( 0, count( analyze( unchanged, argument ), "walked" ) );
+            unchanged.save();
+            write( header, "#define VALUE 2\n" );
+            final Tracker tracker = analyze( createCache( cache ), argument );
+            assertEquals( 1, count( tracker, "walked" ) );
+            assertEquals( 1, count( tracker, "read " + new File( directory, "file0.cpp" ).getPath() ) );
+        }
+        finally
+        {
+            header.delete();
+            include.delete();
+            cache.delete();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import junit.framework.TestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class ChangeListTest extends TestCase
+{
+    private File file;
+
+    protected void setUp() throws IOException
+    {
+        file = File.createTempFile( "cppncss", ".txt" );
+    }
+
+    protected void tearDown()
+    {
+        file.delete();
+    }
+
+    private ChangeList create( final String content ) throws IOException
+    {
+        final FileWriter writer = new FileWriter( file );
+        try
+        {
+            writer.write( content );
+        }
+        finally
+        {
+            writer.close();
+        }
+        return new ChangeList( file.getPath() );
+    }
+
+    public void testPlainPathIsChanged() throws IOException
+    {
+        final ChangeList list = create( "src/file.cpp\n\n" );
+        assertTrue( list.isChanged( "src/file.cpp" ) );
+        assertFalse( list.isDeleted( "src/file.cpp" ) );
+        assertEquals( 1, list.getChanged().size() );
+    }
+
+    public void testPathsAreNormalized() throws IOException
+    {
+        final ChangeList list = create( "./src/file.cpp\n" );
+        assertTrue( list.isChanged( "src/file.cpp" ) );
+        assertTrue( list.isChanged( "./src/file.cpp" ) );
+    }
+
+    public void testGitModifiedAndAddedFilesAreChanged() throws IOException
+    {
+        final ChangeList list = create( "M\tmodified.cpp\nA\tadded.cpp\n" );
+        assertTrue( list.isChanged( "modified.cpp" ) );
+        assertTrue( list.isChanged( "added.cpp" ) );
+    }
+
+    public void testGitDeletedFileIsDeleted() throws IOException
+    {
+        final ChangeList list = create( "D\tdeleted.cpp\n" );
+        assertTrue( list.isDeleted( "deleted.cpp" ) );
+        assertFalse( list.isChanged( "deleted.cpp" ) );
+    }
+
+    public void testGitRenamedFileIsDeletedAndNewFileChanged() throws IOException
+    {
+        final ChangeList list = create( "R087\told.cpp\tnew.cpp\n" );
+        assertTrue( list.isDeleted( "old.cpp" ) );
+        assertTrue( list.isChanged( "new.cpp" ) );
+    }
+
+    public void testGitCopiedFileIsChanged() throws IOException
+    {
+        final ChangeList list = create( "C100\toriginal.cpp\tcopy.cpp\n" );
+        assertFalse( list.isDeleted( "original.cpp" ) );
+        assertFalse( list.isChanged( "original.cpp" ) );
+        assertTrue( list.isChanged( "copy.cpp" ) );
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import junit.framework.TestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class FileContentTest extends TestCase
+{
+    private File file;
+
+    protected void setUp() throws IOException
+    {
+        file = File.createTempFile( "cppncss", ".cpp" );
+    }
+
+    protected void tearDown()
+    {
+        file.delete();
+    }
+
+    private void write( final String content ) throws IOException
+    {
+        write( content.getBytes() );
+    }
+
+    private void write( final byte[] content ) throws IOException
+    {
+        final OutputStream stream = new FileOutputStream( file );
+        try
+        {
+            stream.write( content );
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    public void testReadingMissingFileThrowsException()
+    {
+        file.delete();
+        try
+        {
+            FileContent.read( file.getPath() );
+        }
+        catch( IOException e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+
+    public void testEmptyFileHasEmptyContent() throws IOException
+    {
+        final FileContent content = FileContent.read( file.getPath() );
+        assertEquals( file.getPath(), content.getFilename() );
+        assertEquals( "", content.getText() );
+        assertEquals( 0, content.getBuffer().remaining() );
+    }
+
+    public void testTextIsDecodedOnlyOnce() throws IOException
+    {
+        write( "int i;\n" );
+        final FileContent content = FileContent.read( file.getPath() );
+        assertEquals( "int i;\n", content.getText() );
+        assertSame( content.getText(), content.getText() );
+    }
+
+    public void testEachBufferIsIndependentAndReadOnly() throws IOException
+    {
+        write( "int i;\n" );
+        final FileContent content = FileContent.read( file.getPath() );
+        final ByteBuffer buffer = content.getBuffer();
+        buffer.get();
+        assertTrue( buffer.isReadOnly() );
+        assertEquals( 7, content.getBuffer().remaining() );
+    }
+
+    public void testTextIsDecodedFromUtf8() throws IOException
+    {
+        write( "int \u00e9;\n".getBytes( "UTF-8" ) );
+        final FileContent content = FileContent.read( file.getPath() );
+        assertEquals( "int \u00e9;\n", content.getText() );
+        assertEquals( 8, content.getBuffer().remaining() );
+    }
+}
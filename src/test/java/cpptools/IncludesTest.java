@@ -0,0 +1,117 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import junit.framework.TestCase;
+import cpptools.preprocessor.Definition;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class IncludesTest extends TestCase
+{
+    private File directory;
+    private File path;
+
+    protected void setUp() throws IOException
+    {
+        directory = File.createTempFile( "cppncss", "" );
+        directory.delete();
+        path = new File( directory, "include" );
+        path.mkdirs();
+    }
+
+    protected void tearDown()
+    {
+        delete( directory );
+    }
+
+    private void delete( final File file )
+    {
+        final File[] children = file.listFiles();
+        if( children != null )
+            for( final File child : children )
+                delete( child );
+        file.delete();
+    }
+
+    private String create( final File parent, final String name ) throws IOException
+    {
+        final File file = new File( parent, name );
+        file.createNewFile();
+        return file.getCanonicalPath();
+    }
+
+    public void testUnknownFileIsNotResolved()
+    {
+        final Includes includes = new Includes( Arrays.asList( path.getPath() ) );
+        assertNull( includes.resolve( "unknown.h", false, directory ) );
+    }
+
+    public void testSystemFileIsResolvedFromIncludePaths() throws IOException
+    {
+        final String expected = create( path, "header.h" );
+        create( directory, "header.h" );
+        final Includes includes = new Includes( Arrays.asList( path.getPath() ) );
+        assertEquals( expected, includes.resolve( "header.h", true, directory ) );
+    }
+
+    public void testQuotedFileIsResolvedFromIncludingDirectoryFirst() throws IOException
+    {
+        create( path, "header.h" );
+        final String expected = create( directory, "header.h" );
+        final Includes includes = new Includes( Arrays.asList( path.getPath() ) );
+        assertEquals( expected, includes.resolve( "header.h", false, directory ) );
+    }
+
+    public void testHeaderIsParsedOnlyOnce()
+    {
+        final Includes includes = new Includes( Collections.<String> emptyList() );
+        final int[] count = new int[1];
+        final Callable<Header> parser = new Callable<Header>()
+        {
+            public Header call()
+            {
+                ++count[0];
+                return new Header( Arrays.asList( "+C", "*" ), Collections.singletonMap( "SYMBOL", new Definition(
+                        null, "1" ) ), Collections.<String> emptyList() );
+            }
+        };
+        final Header header = includes.get( "header.h", parser );
+        assertSame( header, includes.get( "header.h", parser ) );
+        assertEquals( 1, count[0] );
+        assertEquals( Arrays.asList( "+C", "*" ), header.getOperations() );
+        assertEquals( "1", header.getDefinitions().get( "SYMBOL" ).getValue() );
+    }
+}
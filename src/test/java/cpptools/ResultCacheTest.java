@@ -0,0 +1,264 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import junit.framework.TestCase;
+import cppast.SymbolJournal;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class ResultCacheTest extends TestCase
+{
+    private static final List<String> NO_HEADERS = Collections.emptyList();
+    private final List<String> replayed = new ArrayList<String>();
+    private final CacheObserver observer = new CacheObserver()
+    {
+        public void record( final List<String> records )
+        {
+            if( records != null )
+                records.add( "result" );
+        }
+
+        public void replay( final List<String> records )
+        {
+            replayed.addAll( records );
+        }
+    };
+    private File cache;
+    private File source;
+    private File second;
+    private File third;
+
+    protected void setUp() throws IOException
+    {
+        cache = File.createTempFile( "cppncss", ".cache" );
+        cache.delete();
+        source = File.createTempFile( "cppncss", ".cpp" );
+        write( source, "int i;" );
+        second = File.createTempFile( "cppncss", ".cpp" );
+        write( second, "int j;" );
+        third = File.createTempFile( "cppncss", ".cpp" );
+        write( third, "int k;" );
+    }
+
+    protected void tearDown()
+    {
+        cache.delete();
+        source.delete();
+        second.delete();
+        third.delete();
+    }
+
+    private void write( final File file, final String content ) throws IOException
+    {
+        final FileWriter writer = new FileWriter( file );
+        try
+        {
+            writer.write( content );
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    private ResultCache create( final String settings )
+    {
+        return new ResultCache( cache.getPath(), settings, observer );
+    }
+
+    private void store( final ResultCache result, final String filename, final String scope ) throws IOException
+    {
+        final SymbolJournal journal = new SymbolJournal();
+        journal.openScope( scope );
+        journal.closeScope();
+        result.record();
+        result.store( filename, NO_HEADERS, journal, true );
+        result.save();
+    }
+
+    public void testEmptyCacheDoesNotContainAnything()
+    {
+        final ResultCache result = create( "settings" );
+        assertFalse( result.contains( source.getPath() ) );
+        assertFalse( result.replay( source.getPath(), new SymbolJournal() ) );
+    }
+
+    public void testStoredResultsAreReplayedWithScopes() throws IOException
+    {
+        store( create( "settings" ), source.getPath(), "scope" );
+        final ResultCache result = create( "settings" );
+        assertTrue( result.contains( source.getPath() ) );
+        final SymbolJournal journal = new SymbolJournal();
+        assertTrue( result.replay( source.getPath(), journal ) );
+        assertEquals( Arrays.asList( "result" ), replayed );
+        assertEquals( Arrays.asList( "+scope", "-" ), journal.getOperations() );
+    }
+
+    public void testResultsAreDiscardedWhenSettingsChange() throws IOException
+    {
+        store( create( "settings" ), source.getPath(), "scope" );
+        assertFalse( create( "other settings" ).contains( source.getPath() ) );
+    }
+
+    public void testResultsAreDiscardedWhenContentChanges() throws IOException
+    {
+        store( create( "settings" ), source.getPath(), "scope" );
+        write( source, "int j;" );
+        assertFalse( create( "settings" ).contains( source.getPath() ) );
+    }
+
+    public void testResultsAreDiscardedWhenPreviousScopesChange() throws IOException
+    {
+        final File other = File.createTempFile( "cppncss", ".h" );
+        try
+        {
+            final ResultCache first = create( "settings" );
+            final SymbolJournal journal = new SymbolJournal();
+            journal.openScope( "scope" );
+            first.record();
+            first.store( other.getPath(), NO_HEADERS, journal, true );
+            store( first, source.getPath(), "scope" );
+            final ResultCache second = create( "settings" );
+            second.record();
+            second.store( other.getPath(), NO_HEADERS, new SymbolJournal(), true );
+            assertTrue( second.contains( source.getPath() ) );
+            assertFalse( second.replay( source.getPath(), new SymbolJournal() ) );
+        }
+        finally
+        {
+            other.delete();
+        }
+    }
+
+    public void testResultsAreDiscardedWhenIncludedHeaderChanges() throws IOException
+    {
+        final ResultCache first = create( "settings" );
+        first.record();
+        first.store( source.getPath(), Arrays.asList( second.getPath() ), new SymbolJournal(), true );
+        first.save();
+        assertTrue( create( "settings" ).contains( source.getPath() ) );
+        write( second, "int l;" );
+        final ResultCache result = create( "settings" );
+        assertFalse( result.contains( source.getPath() ) );
+        assertFalse( result.anticipate( source.getPath() ) );
+        assertFalse( result.replay( source.getPath(), new SymbolJournal() ) );
+    }
+
+    public void testResultsAreDiscardedWhenIncludedHeaderIsRemoved() throws IOException
+    {
+        final ResultCache first = create( "settings" );
+        first.record();
+        first.store( source.getPath(), Arrays.asList( second.getPath() ), new SymbolJournal(), true );
+        first.save();
+        second.delete();
+        assertFalse( create( "settings" ).contains( source.getPath() ) );
+    }
+
+    public void testCorruptedCacheFileIsIgnored() throws IOException
+    {
+        write( cache, "corrupted" );
+        assertFalse( create( "settings" ).contains( source.getPath() ) );
+    }
+
+    public void testFailedFilesAreListedButNotReused() throws IOException
+    {
+        final ResultCache first = create( "settings" );
+        first.record();
+        first.store( source.getPath(), NO_HEADERS, new SymbolJournal(), false );
+        first.save();
+        final ResultCache second = create( "settings" );
+        assertEquals( Arrays.asList( source.getPath() ), second.getFiles() );
+        assertFalse( second.contains( source.getPath() ) );
+    }
+
+    public void testFilesAssumedUnchangedAreNotRead() throws IOException
+    {
+        store( create( "settings" ), source.getPath(), "scope" );
+        write( source, "int j;" );
+        final ResultCache result = create( "settings" );
+        result.assumeUnchanged( source.getPath() );
+        assertTrue( result.contains( source.getPath() ) );
+    }
+
+    private ResultCache storeAll() throws IOException
+    {
+        final ResultCache result = create( "settings" );
+        store( result, source.getPath(), "first" );
+        store( result, second.getPath(), "second" );
+        store( result, third.getPath(), "third" );
+        return result;
+    }
+
+    public void testAnticipatedFilesAreReplayed() throws IOException
+    {
+        storeAll();
+        final ResultCache result = create( "settings" );
+        assertTrue( result.anticipate( source.getPath() ) );
+        assertTrue( result.anticipate( second.getPath() ) );
+        assertTrue( result.replay( source.getPath(), new SymbolJournal() ) );
+        assertTrue( result.replay( second.getPath(), new SymbolJournal() ) );
+    }
+
+    public void testFilesFollowingAChangedFileAreNotAnticipated() throws IOException
+    {
+        storeAll();
+        write( source, "int l;" );
+        final ResultCache result = create( "settings" );
+        assertFalse( result.anticipate( source.getPath() ) );
+        assertTrue( result.contains( second.getPath() ) );
+        assertFalse( result.anticipate( second.getPath() ) );
+    }
+
+    public void testAnticipationResumesOnceChangedFileIsStored() throws IOException
+    {
+        storeAll();
+        write( source, "int l;" );
+        final ResultCache result = create( "settings" );
+        assertFalse( result.anticipate( source.getPath() ) );
+        assertFalse( result.anticipate( second.getPath() ) );
+        assertFalse( result.replay( source.getPath(), new SymbolJournal() ) );
+        final SymbolJournal journal = new SymbolJournal();
+        journal.openScope( "first" );
+        journal.closeScope();
+        result.record();
+        result.store( source.getPath(), NO_HEADERS, journal, true );
+        assertTrue( result.anticipate( third.getPath() ) );
+        assertTrue( result.replay( second.getPath(), new SymbolJournal() ) );
+        assertTrue( result.replay( third.getPath(), new SymbolJournal() ) );
+    }
+}
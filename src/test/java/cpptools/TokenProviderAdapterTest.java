@@ -0,0 +1,97 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools;
+
+import junit.framework.TestCase;
+import cppast.BufferCharStream;
+import cppast.ParserConstants;
+import cppast.ParserTokenManager;
+import cppast.Token;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class TokenProviderAdapterTest extends TestCase
+{
+    private TokenProviderAdapter parse( final String data, final boolean comments )
+    {
+        final TokenProviderAdapter provider = new TokenProviderAdapter( new ParserTokenManager( null ), comments );
+        provider.reset( new BufferCharStream( data ) );
+        return provider;
+    }
+
+    private int countSpecialTokens( final Token token, final int kind )
+    {
+        int count = 0;
+        for( Token special = token.specialToken; special != null; special = special.specialToken )
+            if( special.kind == kind )
+                ++count;
+        return count;
+    }
+
+    public void testCommentsAndNewLinesAreSpecialTokensByDefault()
+    {
+        final Token token = parse( "/* c */\n// cpp\nhere", true ).next();
+        assertEquals( "here", token.image );
+        assertEquals( 1, countSpecialTokens( token, ParserConstants.C_STYLE_COMMENT ) );
+        assertEquals( 1, countSpecialTokens( token, ParserConstants.CPP_STYLE_COMMENT ) );
+        assertEquals( 2, countSpecialTokens( token, ParserConstants.NEW_LINE ) );
+    }
+
+    public void testCommentsAndNewLinesAreDiscardedWithoutComments()
+    {
+        final TokenProviderAdapter provider = parse( "/* c */\n// cpp\nhere /* is */ text", false );
+        final Token token = provider.next();
+        assertEquals( "here", token.image );
+        assertNull( token.specialToken );
+        assertEquals( 1, token.beginColumn );
+        assertEquals( 3, token.beginLine );
+        assertNull( provider.next().specialToken );
+        assertEquals( ParserConstants.EOF, provider.next().kind );
+    }
+
+    public void testDirectivesAreKeptWithoutComments()
+    {
+        final Token token = parse( "// comment\n#define A\nhere", false ).next();
+        assertEquals( "here", token.image );
+        assertEquals( ParserConstants.PREPROCESSOR, token.specialToken.kind );
+        assertEquals( "#define A", token.specialToken.image );
+        assertNull( token.specialToken.specialToken );
+    }
+
+    public void testSkippingInactiveCodeResumesWithoutComments()
+    {
+        final TokenProviderAdapter provider = parse( "here /* is */\n#endif\n// my\ntext", false );
+        final Token directive = provider.skip();
+        assertEquals( ParserConstants.INACTIVE_DIRECTIVE, directive.kind );
+        final Token token = provider.next();
+        assertEquals( "text", token.image );
+        assertNull( token.specialToken );
+    }
+}
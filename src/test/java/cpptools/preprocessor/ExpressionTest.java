@@ -0,0 +1,141 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools.preprocessor;
+
+import java.util.HashMap;
+import java.util.Map;
+import junit.framework.TestCase;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class ExpressionTest extends TestCase
+{
+    private Map<String, String> symbols;
+
+    protected void setUp()
+    {
+        symbols = new HashMap<String, String>();
+    }
+
+    private long evaluate( final String text )
+    {
+        return Expression.evaluate( text, symbols );
+    }
+
+    private void assertInvalid( final String text )
+    {
+        try
+        {
+            evaluate( text );
+        }
+        catch( IllegalArgumentException e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+
+    public void testNumbersAreEvaluated()
+    {
+        assertEquals( 0, evaluate( "0" ) );
+        assertEquals( 12, evaluate( "12" ) );
+        assertEquals( 255, evaluate( "0xFF" ) );
+        assertEquals( 8, evaluate( "010" ) );
+        assertEquals( 1200, evaluate( "1200UL" ) );
+        assertEquals( 'a', evaluate( "'a'" ) );
+        assertEquals( '\n', evaluate( "'\\n'" ) );
+    }
+
+    public void testOperatorsFollowPrecedence()
+    {
+        assertEquals( 7, evaluate( "1 + 2 * 3" ) );
+        assertEquals( 9, evaluate( "(1 + 2) * 3" ) );
+        assertEquals( 1, evaluate( "1 << 2 == 4 && 3 > 2 || 0" ) );
+        assertEquals( 6, evaluate( "7 & ~1 | 2 ^ 2" ) );
+        assertEquals( -3, evaluate( "-7 / 2" ) );
+        assertEquals( 1, evaluate( "!0 && 5 % 2" ) );
+    }
+
+    public void testConditionalOperatorIsEvaluated()
+    {
+        assertEquals( 2, evaluate( "1 ? 2 : 3" ) );
+        assertEquals( 3, evaluate( "0 ? 2 : 3" ) );
+        assertEquals( 4, evaluate( "0 ? 2 : 0 ? 3 : 4" ) );
+    }
+
+    public void testDefinedOperatorChecksSymbols()
+    {
+        symbols.put( "SYMBOL", "" );
+        assertEquals( 1, evaluate( "defined SYMBOL" ) );
+        assertEquals( 1, evaluate( "defined( SYMBOL )" ) );
+        assertEquals( 0, evaluate( "defined OTHER" ) );
+        assertEquals( 1, evaluate( "defined SYMBOL && !defined(OTHER)" ) );
+    }
+
+    public void testIdentifiersAreReplacedByTheirValue()
+    {
+        symbols.put( "VERSION", "LEVEL * 10" );
+        symbols.put( "LEVEL", "3 /* comment */" );
+        assertEquals( 30, evaluate( "VERSION" ) );
+        assertEquals( 0, evaluate( "UNDEFINED" ) );
+        assertEquals( 1, evaluate( "true" ) );
+    }
+
+    public void testDivisionByZeroIsIgnoredWhenNotEvaluated()
+    {
+        assertEquals( 0, evaluate( "UNDEFINED && 1 / UNDEFINED" ) );
+        assertEquals( 1, evaluate( "1 || 1 % 0" ) );
+        assertInvalid( "1 / 0" );
+    }
+
+    public void testInvalidExpressionsAreRejected()
+    {
+        assertInvalid( "" );
+        assertInvalid( "1 +" );
+        assertInvalid( "(1" );
+        assertInvalid( "1 2" );
+        assertInvalid( "1.5" );
+        assertInvalid( "\"string\"" );
+    }
+
+    public void testMacrosAreRejected()
+    {
+        symbols.put( "MACRO", null );
+        assertInvalid( "MACRO" );
+        assertInvalid( "MACRO(1)" );
+        assertInvalid( "UNDEFINED(1)" );
+    }
+
+    public void testRecursiveSymbolsAreRejected()
+    {
+        symbols.put( "SYMBOL", "SYMBOL + 1" );
+        assertInvalid( "SYMBOL" );
+    }
+}
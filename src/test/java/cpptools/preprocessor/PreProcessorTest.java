@@ -28,10 +28,10 @@
 
 package cpptools.preprocessor;
 
-import java.io.StringReader;
-
+import java.util.Collections;
+import java.util.Map;
 import junit.framework.TestCase;
-import cppast.JavaCharStream;
+import cppast.BufferCharStream;
 import cppast.ParserConstants;
 import cppast.ParserTokenManager;
 import cppast.Token;
@@ -51,7 +51,7 @@ public class PreProcessorTest extends TestCase
 
     private void parse( final String data )
     {
-        processor.reset( new JavaCharStream( new StringReader( data ) ) );
+        processor.reset( new BufferCharStream( data ) );
     }
 
     private void assertToken( int kind, String image )
@@ -337,4 +337,257 @@ public class PreProcessorTest extends TestCase
         assertNotNull( token.specialToken.specialToken );
         assertEquals( "/*surely*/", token.specialToken.specialToken.image );
     }
+
+    public void testEachSymbolAmongManyIsReplacedByItsOwnValue()
+    {
+        for( int i = 0; i < 300; ++i )
+            processor.addDefine( "symbol" + i, "value" + i );
+        parse( "symbol7 here symbol299" );
+        assertToken( ParserConstants.ID, "value7" );
+        assertToken( ParserConstants.ID, "here" );
+        assertToken( ParserConstants.ID, "value299" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    private void parseConditional( final String data )
+    {
+        processor = new PreProcessor( new TokenProviderAdapter( new ParserTokenManager( null ) ), true );
+        processor.addDefine( "ENABLED", "1" );
+        processor.addMacro( "MACRO", "" );
+        parse( data );
+    }
+
+    public void testCodeDisabledByConditionalDirectivesIsNotSkippedByDefault()
+    {
+        parse( "#if 0\nhere\n#else\nthere\n#endif\n" );
+        assertToken( ParserConstants.ID, "here" );
+        assertToken( ParserConstants.ID, "there" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testCodeDisabledByConditionalDirectivesIsSkipped()
+    {
+        parseConditional( "#if 0\nhere is\n#elif ENABLED\nmy\n#else\nyour\n#endif\ntext" );
+        assertToken( ParserConstants.ID, "my" );
+        assertToken( ParserConstants.ID, "text" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testNestedConditionalDirectivesWithinDisabledCodeAreSkipped()
+    {
+        parseConditional( "#ifdef DISABLED\n#if 1\nhere\n#else\nis\n#endif\n#else\nmy\n#endif\ntext" );
+        assertToken( ParserConstants.ID, "my" );
+        assertToken( ParserConstants.ID, "text" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testConditionalDirectivesUseSymbolsDefinedWithinSource()
+    {
+        parseConditional( "#define LEVEL 2\n#if LEVEL > 1\nhere\n#endif\n#undef LEVEL\n#ifndef LEVEL\ntext\n#endif" );
+        assertToken( ParserConstants.ID, "here" );
+        assertToken( ParserConstants.ID, "text" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testSymbolsDefinedWithinSourceAreForgottenOnReset()
+    {
+        parseConditional( "#define LOCAL\n" );
+        assertToken( ParserConstants.EOF, "" );
+        parse( "#ifdef LOCAL\nhere\n#endif\n#ifdef ENABLED\ntext\n#endif" );
+        assertToken( ParserConstants.ID, "text" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testConditionWhichCannotBeEvaluatedKeepsAllBranches()
+    {
+        parseConditional( "#if MACRO(1)\nhere\n#else\ntext\n#endif" );
+        assertToken( ParserConstants.ID, "here" );
+        assertToken( ParserConstants.ID, "text" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testDisabledCodeWithUnbalancedQuotesAndCommentedDirectivesIsSkipped()
+    {
+        parseConditional( "#if 0\nit's /* \n#endif */ \"\n#endif\ntext" );
+        assertToken( ParserConstants.ID, "text" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testSpecialTokensAreKeptWhenSkippingDisabledCode()
+    {
+        parseConditional( "/*here*/\n#if 0\nis /*my*/\n#endif\ntext" );
+        final Token token = processor.next();
+        assertEquals( "text", token.image );
+        Token special = token.specialToken;
+        while( special.specialToken != null )
+            special = special.specialToken;
+        final StringBuffer images = new StringBuffer();
+        for( ; special != null; special = special.next )
+            if( special.kind != ParserConstants.NEW_LINE )
+                images.append( special.image ).append( ' ' ).append( special.kind ).append( ' ' );
+        assertEquals( "/*here*/ " + ParserConstants.C_STYLE_COMMENT + " #if 0 " + ParserConstants.PREPROCESSOR
+                + " #endif " + ParserConstants.PREPROCESSOR + " ", images.toString() );
+    }
+
+    public void testUnterminatedDisabledCodeIsSkippedUntilEndOfFile()
+    {
+        parseConditional( "#if 0\nhere is my text" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testSymbolsDefinedByIncludedFilesAreUsedByConditionalDirectives()
+    {
+        final IncludeHandler handler = new IncludeHandler()
+        {
+            public Map<String, Definition> include( final String name, final boolean system )
+            {
+                if( system || !name.equals( "config.h" ) )
+                    return null;
+                return Collections.singletonMap( "FEATURE", new Definition( null, "1" ) );
+            }
+        };
+        final TokenProvider provider = new TokenProviderAdapter( new ParserTokenManager( null ) );
+        processor = new PreProcessor( provider, true, false, handler );
+        parse( "#include <config.h>\n#ifdef FEATURE\nhere\n#endif\n#include \"config.h\"\n#if FEATURE\ntext\n#endif" );
+        assertToken( ParserConstants.ID, "text" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    private void parseExpanding( final String data )
+    {
+        processor = new PreProcessor( new TokenProviderAdapter( new ParserTokenManager( null ) ), false, true, null );
+        processor.addDefine( "my", "your" );
+        parse( data );
+    }
+
+    public void testDefinesFromSourceAreNotExpandedByDefault()
+    {
+        parse( "#define here there\nhere" );
+        assertToken( ParserConstants.ID, "here" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testDefineFromSourceIsExpanded()
+    {
+        parseExpanding( "here\n#define here is my\nhere text" );
+        assertToken( ParserConstants.ID, "here" );
+        assertToken( ParserConstants.ID, "is" );
+        assertToken( ParserConstants.ID, "my" );
+        assertToken( ParserConstants.ID, "text" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testDefineFromCommandLineTakesPrecedence()
+    {
+        parseExpanding( "#define my mine\nmy" );
+        assertToken( ParserConstants.ID, "your" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testUndefinedDefineFromSourceIsNotExpanded()
+    {
+        parseExpanding( "#define here there\n#undef here\nhere" );
+        assertToken( ParserConstants.ID, "here" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testDefineFromSourceIsForgottenOnReset()
+    {
+        parseExpanding( "#define here there\n" );
+        assertToken( ParserConstants.EOF, "" );
+        parse( "here" );
+        assertToken( ParserConstants.ID, "here" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testMacroFromSourceSubstitutesArguments()
+    {
+        parseExpanding( "#define max( a, b ) ((a) > (b) ? a : b)\nmax( f( x, y ), 1 )" );
+        final StringBuffer result = new StringBuffer();
+        for( Token token = processor.next(); token.kind != ParserConstants.EOF; token = processor.next() )
+            result.append( token.image );
+        assertEquals( "((f(x,y))>(1)?f(x,y):1)", result.toString() );
+    }
+
+    public void testVariadicMacroFromSourceGathersRemainingArguments()
+    {
+        parseExpanding( "#define call( f, ... ) f( __VA_ARGS__ )\ncall( g, 1, 2 )" );
+        final StringBuffer result = new StringBuffer();
+        for( Token token = processor.next(); token.kind != ParserConstants.EOF; token = processor.next() )
+            result.append( token.image );
+        assertEquals( "g(1,2)", result.toString() );
+    }
+
+    public void testMacroFromSourceWithoutArgumentsIsNotExpanded()
+    {
+        parseExpanding( "#define here( a ) a\nhere text" );
+        assertToken( ParserConstants.ID, "here" );
+        assertToken( ParserConstants.ID, "text" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testMacroFromSourcePastingTokensIsNotExpanded()
+    {
+        parseExpanding( "#define here( a ) a ## text\nhere( is )" );
+        assertToken( ParserConstants.ID, "here" );
+        assertToken( ParserConstants.LPARENTHESIS, "(" );
+    }
+
+    public void testMacroFromSourceStringizingIsNotExpanded()
+    {
+        parseExpanding( "#define here( a ) #a\nhere( is )" );
+        assertToken( ParserConstants.ID, "here" );
+        assertToken( ParserConstants.LPARENTHESIS, "(" );
+    }
+
+    public void testDefineFromSourceWithHashInLiteralIsExpanded()
+    {
+        parseExpanding( "#define here \"a#b\"\nhere" );
+        assertToken( ParserConstants.STRING, "\"a#b\"" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testDefineWithHashInLiteralIsValid()
+    {
+        processor.addDefine( "X", "\"a#b\"" );
+        parse( "X" );
+        assertToken( ParserConstants.STRING, "\"a#b\"" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testMacroWithHashOperatorIsValid()
+    {
+        processor.addMacro( "S", "#x" );
+        parse( "S() text" );
+        assertToken( ParserConstants.ID, "text" );
+        assertToken( ParserConstants.EOF, "" );
+    }
+
+    public void testExpandedTokensAreLocatedAtTheSymbolAndArgumentsKeepTheirLocation()
+    {
+        parseExpanding( "#define here( a ) is a\nhere( text )" );
+        assertLocation( processor.next(), 2, 1, 2, 4 );
+        assertLocation( processor.next(), 2, 7, 2, 10 );
+    }
+
+    public void testArgumentUsedTwiceIsCopied()
+    {
+        parseExpanding( "#define twice( a ) a a\ntwice( here )" );
+        final Token first = processor.next();
+        final Token second = processor.next();
+        assertEquals( "here", first.image );
+        assertEquals( "here", second.image );
+        assertNotSame( first, second );
+    }
+
+    public void testLongRunOfRemovedTokensDoesNotOverflowStack()
+    {
+        processor.addDefine( "my", "" );
+        final StringBuffer data = new StringBuffer();
+        for( int i = 0; i < 100000; ++i )
+            data.append( "my " );
+        parse( data.append( "text" ).toString() );
+        assertToken( ParserConstants.ID, "text" );
+        assertToken( ParserConstants.EOF, "" );
+    }
 }
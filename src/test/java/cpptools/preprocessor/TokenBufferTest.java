@@ -0,0 +1,94 @@
+/**
+ * Redistribution  and use  in source  and binary  forms, with  or without
+ * modification, are permitted provided  that the following conditions are
+ * met :
+ *
+ * . Redistributions  of  source  code  must  retain  the  above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * . Redistributions in  binary form  must reproduce  the above  copyright
+ *   notice, this list of conditions  and the following disclaimer in  the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * . The name of the author may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS  PROVIDED BY THE  AUTHOR ``AS IS''  AND ANY EXPRESS  OR
+ * IMPLIED  WARRANTIES,  INCLUDING,  BUT   NOT  LIMITED  TO,  THE   IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND  FITNESS FOR A PARTICULAR  PURPOSE ARE
+ * DISCLAIMED.  IN NO  EVENT SHALL  THE AUTHOR  BE LIABLE  FOR ANY  DIRECT,
+ * INDIRECT,  INCIDENTAL,  SPECIAL,  EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES
+ * (INCLUDING,  BUT  NOT LIMITED  TO,  PROCUREMENT OF  SUBSTITUTE  GOODS OR
+ * SERVICES;  LOSS  OF USE,  DATA,  OR PROFITS;  OR  BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED  AND ON  ANY THEORY  OF LIABILITY,  WHETHER IN  CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY  WAY  OUT OF  THE  USE OF  THIS  SOFTWARE, EVEN  IF  ADVISED OF  THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package cpptools.preprocessor;
+
+import junit.framework.TestCase;
+import cppast.Token;
+
+/**
+ * @author Mathieu Champlon
+ */
+public class TokenBufferTest extends TestCase
+{
+    private TokenBuffer buffer;
+
+    protected void setUp()
+    {
+        buffer = new TokenBuffer();
+    }
+
+    public void testNewBufferIsEmpty()
+    {
+        assertTrue( buffer.isEmpty() );
+    }
+
+    public void testLastTokenPushedIsFirstPopped()
+    {
+        final Token first = new Token();
+        final Token second = new Token();
+        buffer.push( first );
+        buffer.push( second );
+        assertSame( second, buffer.pop() );
+        assertSame( first, buffer.pop() );
+        assertTrue( buffer.isEmpty() );
+    }
+
+    public void testBufferGrowsToHoldManyTokens()
+    {
+        final Token[] tokens = new Token[1000];
+        for( int i = 0; i < tokens.length; ++i )
+        {
+            tokens[i] = new Token();
+            buffer.push( tokens[i] );
+        }
+        for( int i = tokens.length - 1; i >= 0; --i )
+            assertSame( tokens[i], buffer.pop() );
+        assertTrue( buffer.isEmpty() );
+    }
+
+    public void testClearedBufferIsEmpty()
+    {
+        buffer.push( new Token() );
+        buffer.clear();
+        assertTrue( buffer.isEmpty() );
+    }
+
+    public void testPoppingEmptyBufferThrowsException()
+    {
+        try
+        {
+            buffer.pop();
+        }
+        catch( IllegalStateException e )
+        {
+            return;
+        }
+        fail( "should have thrown" );
+    }
+}